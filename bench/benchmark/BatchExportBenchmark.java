@@ -0,0 +1,63 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.ScheduleViews;
+import model.TermCalendar;
+import view.ExcelScheduler;
+import view.PDFScheduler;
+
+/**
+ * Writing the per-instructor, per-room and per-course timetables of the
+ * accepted slots into one file, on one or more threads.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchExportBenchmark {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private ScheduleViews views;
+    private PDFScheduler pdfScheduler;
+    private ExcelScheduler excelScheduler;
+
+    @Setup
+    public void setUp(ScheduleInput input) throws IOException {
+        TermCalendar calendar = TermCalendar.active();
+        views = new ScheduleViews(calendar.getDisplayDays(), calendar.getPeriods(), input.accepted);
+        Path output = Files.createDirectories(input.directory.resolve("output"));
+        pdfScheduler = new PDFScheduler(output, threads);
+        excelScheduler = new ExcelScheduler(true, output, threads);
+    }
+
+    @Benchmark
+    public void pdf() throws IOException {
+        pdfScheduler.generateBatch(views);
+    }
+
+    @Benchmark
+    public void excel() throws IOException {
+        excelScheduler.generateBatch(views);
+    }
+}
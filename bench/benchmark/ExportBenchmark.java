@@ -0,0 +1,64 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.TermCalendar;
+import view.ExcelScheduler;
+import view.PDFScheduler;
+
+/**
+ * Writing the accepted slots as the combined PDF and Excel timetable into the
+ * input's temporary directory.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    @Param({"true"})
+    public boolean streaming;
+
+    private String[] days;
+    private String[] timeSlots;
+    private PDFScheduler pdfScheduler;
+    private ExcelScheduler excelScheduler;
+
+    @Setup
+    public void setUp(ScheduleInput input) throws IOException {
+        TermCalendar calendar = TermCalendar.active();
+        days = calendar.getDisplayDays();
+        timeSlots = calendar.getPeriods();
+        Path output = Files.createDirectories(input.directory.resolve("output"));
+        pdfScheduler = new PDFScheduler(output);
+        excelScheduler = new ExcelScheduler(streaming, output);
+    }
+
+    @Benchmark
+    public void pdf(ScheduleInput input) throws IOException {
+        pdfScheduler.generateSchedule(days, timeSlots, input.accepted);
+    }
+
+    @Benchmark
+    public void excel(ScheduleInput input) throws IOException {
+        excelScheduler.generateSchedule(days, timeSlots, input.accepted);
+    }
+}
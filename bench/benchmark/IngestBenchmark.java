@@ -0,0 +1,45 @@
+package benchmark;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import controller.SlotLoader;
+import model.ConflictReport;
+import model.Schedule;
+import util.ParseTxt;
+
+/**
+ * Reading the instructor files: parsing alone, and the whole load that
+ * Scheduler.handleSlots runs (parallel parsing, validation and conflict
+ * checking into the schedule). handleSlots itself also redraws the JavaFX
+ * timetable, so SlotLoader.load is measured without the cache instead.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestBenchmark {
+
+    @Benchmark
+    public void parse(ScheduleInput input, Blackhole blackhole) {
+        for (Path file : input.files) {
+            blackhole.consume(ParseTxt.parse(file.toString()));
+        }
+    }
+
+    @Benchmark
+    public ConflictReport load(ScheduleInput input) {
+        return SlotLoader.load(input.files, new Schedule());
+    }
+}
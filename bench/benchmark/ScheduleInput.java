@@ -0,0 +1,67 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import controller.SlotLoader;
+import model.Schedule;
+import model.Slot;
+import util.ParseTxt;
+
+/**
+ * Input shared by the benchmarks: N instructor files with M slots each,
+ * written to a temporary directory once per trial, plus the parsed and the
+ * accepted slots.
+ *
+ * Sizes can be changed on the command line, e.g.
+ * java -jar target/benchmarks.jar -p instructors=2000 -p conflictRate=0.5
+ */
+
+@State(Scope.Benchmark)
+public class ScheduleInput {
+
+    @Param({"50", "500"})
+    public int instructors;
+
+    @Param({"20"})
+    public int slotsPerInstructor;
+
+    @Param({"0.05", "0.25"})
+    public double conflictRate;
+
+    public Path directory;
+    public List<Path> files;
+    public List<Slot> parsed;
+    public List<Slot> accepted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("schedule-bench");
+        files = new SyntheticSchedule(instructors, slotsPerInstructor, conflictRate, 42).write(directory.resolve("instructors"));
+        parsed = files.stream().flatMap(file -> ParseTxt.parse(file.toString()).stream()).toList();
+
+        Schedule schedule = new Schedule();
+        SlotLoader.load(files, schedule);
+        accepted = schedule.snapshot();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import model.TermCalendar;
+
+/**
+ * Generates instructor files in the format of resources/instructors
+ * ("day;time;course;room;") for the benchmarks.
+ *
+ * Every instructor gets the same number of slots. A slot is either clean
+ * (a day, period and room that no earlier slot uses, in a cell that is free for
+ * the instructor) or, with the given conflict rate, a copy of the day, time
+ * and room of an earlier slot, which SlotLoader rejects as a room conflict.
+ * There are enough rooms for all clean slots, so the rejections come only from
+ * the conflict rate. An instructor can't have more clean slots than the
+ * calendar has cells; slots beyond that become instructor conflicts.
+ */
+
+public class SyntheticSchedule {
+
+    private final TermCalendar calendar;
+    private final int instructors;
+    private final int slotsPerInstructor;
+    private final double conflictRate;
+    private final long seed;
+
+    /**
+     * @param instructors        Number of instructor files (N).
+     * @param slotsPerInstructor Number of slots per file (M).
+     * @param conflictRate       Fraction of slots that conflict with an earlier slot, from 0 to 1.
+     * @param seed               Seed of the random generator, so runs are repeatable.
+     */
+
+    public SyntheticSchedule(int instructors, int slotsPerInstructor, double conflictRate, long seed) {
+        this.calendar = TermCalendar.active();
+        this.instructors = instructors;
+        this.slotsPerInstructor = slotsPerInstructor;
+        this.conflictRate = conflictRate;
+        this.seed = seed;
+    }
+
+    /**
+     * Writes one file per instructor (I0000.txt, I0001.txt, ...) into the directory.
+     *
+     * @return the files in name order, which is also the order they should be loaded in.
+     */
+
+    public List<Path> write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<String> lines = lines();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < instructors; i++) {
+            Path file = directory.resolve(instructorName(i) + ".txt");
+            int from = i * slotsPerInstructor;
+            Files.write(file, lines.subList(from, from + slotsPerInstructor), StandardCharsets.UTF_8);
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * Returns the lines of all files, instructor by instructor.
+     */
+
+    public List<String> lines() {
+        Random random = new Random(seed);
+        String[] days = calendar.getDisplayDays();
+        int periods = calendar.getPeriodCount();
+        int cells = days.length * periods;
+        int rooms = Math.max(1, (int) Math.ceil(instructors * (double) Math.min(slotsPerInstructor, cells) / cells * 1.25));
+
+        Set<Long> usedRooms = new HashSet<>();
+        List<String[]> placed = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < instructors; i++) {
+            Set<Integer> busy = new HashSet<>();
+            for (int s = 0; s < slotsPerInstructor; s++) {
+                String course = "C" + instructorName(i).substring(1) + "-" + (s % 4);
+                String[] cell;
+                if (!placed.isEmpty() && random.nextDouble() < conflictRate) {
+                    cell = placed.get(random.nextInt(placed.size()));
+                } else {
+                    cell = freeCell(random, days, periods, rooms, busy, usedRooms);
+                    if (cell == null) {
+                        cell = new String[] {days[0], calendar.startOf(0), "R0"};
+                    } else {
+                        placed.add(cell);
+                    }
+                }
+                lines.add(cell[0] + ";" + cell[1] + ";" + course + ";" + cell[2] + ";");
+            }
+        }
+        return lines;
+    }
+
+    private String[] freeCell(Random random, String[] days, int periods, int rooms, Set<Integer> busy, Set<Long> usedRooms) {
+        int cells = days.length * periods;
+        if (busy.size() == cells) {
+            return null;
+        }
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            int cell = random.nextInt(cells);
+            int room = random.nextInt(rooms);
+            long key = (long) cell * rooms + room;
+            if (!busy.contains(cell) && usedRooms.add(key)) {
+                busy.add(cell);
+                return new String[] {days[cell / periods], calendar.startOf(cell % periods), "R" + room};
+            }
+        }
+        return null;
+    }
+
+    private static String instructorName(int index) {
+        return String.format("I%04d", index);
+    }
+}
@@ -0,0 +1,48 @@
+package controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmark.ScheduleInput;
+import model.ConflictReport;
+import model.Slot;
+
+/**
+ * ValidationStrategy.checkSlot over every parsed slot. It lives in the
+ * controller package because checkSlot is protected.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Benchmark
+    public int checkSlot(ScheduleInput input) {
+        int valid = 0;
+        for (Slot slot : input.parsed) {
+            if (ValidationStrategy.checkSlot(slot)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public ConflictReport checkSlotWithReport(ScheduleInput input) {
+        ConflictReport report = new ConflictReport();
+        for (Slot slot : input.parsed) {
+            ValidationStrategy.checkSlot(slot, report);
+        }
+        return report;
+    }
+}
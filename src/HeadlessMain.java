@@ -0,0 +1,342 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import controller.ScheduleServer;
+import controller.SlotCache;
+import controller.SlotLoader;
+import model.ConflictReport;
+import model.Schedule;
+import model.ScheduleSnapshot;
+import model.ScheduleWorkspace;
+import model.ScheduleViews;
+import model.Slot;
+import solver.CourseRequest;
+import solver.RepairAdvisor;
+import solver.RepairAdvisor.Repair;
+import solver.RepairAdvisor.Suggestion;
+import solver.SolverResult;
+import solver.TimetableProblem;
+import solver.TimetableSolver;
+import util.Metrics;
+import util.ParseRequests;
+import view.BasicScheduler;
+import view.ExcelScheduler;
+import view.PDFScheduler;
+
+/**
+ * Command-line entry point that generates schedules without a GUI.
+ *
+ * It runs the same parsing, conflict checking and exporters as the JavaFX
+ * application but never touches the JavaFX toolkit, so it can be used in
+ * batch jobs on machines without a display.
+ *
+ * Usage:
+ * java HeadlessMain (--input DIR_OR_FILE [--input ...] | --departments DIR) [--format pdf|excel] [--output DIR] [--batch] [--threads N]
+ *                    [--report FILE.csv|FILE.json] [--no-cache] [--suggest K] [--metrics FILE]
+ *                    [--solve [--requests FILE] [--unavailable FILE] [--budget SECONDS]] [--serve PORT]
+ *
+ * Rejected lines and slots are summarized on stderr and, with --report,
+ * written to a CSV or JSON file. Unchanged input files are taken from the
+ * slot cache in resources/cache unless --no-cache is given. With --suggest,
+ * the K best free cells are printed for every slot rejected by a conflict.
+ * With --metrics, the counters and timings of the run are written at the end,
+ * as JSON if the file ends with .json and as Prometheus text otherwise.
+ *
+ * With --departments DIR instead of --input, every subdirectory of DIR is a
+ * department with its own schedule in a ScheduleWorkspace. The departments
+ * are loaded and exported in parallel into OUTPUT/<department>.
+ *
+ * With --threads, the --batch timetables are rendered on N threads and
+ * merged into the same file, in the same order as on one thread.
+ *
+ * With --serve, nothing is written; instead the timetables are served as
+ * JSON, PDF and XLSX by a ScheduleServer on localhost until the process is stopped.
+ *
+ * With --solve, slots with a blank room and the course hours in the requests
+ * file are placed by the TimetableSolver before the schedule is exported.
+ */
+
+public class HeadlessMain {
+
+    private static final String USAGE =
+        "Usage: HeadlessMain (--input <dir|file> [--input ...] | --departments <dir>) [--format pdf|excel] [--output <dir>] [--batch] [--threads <n>]"
+        + " [--report <file.csv|file.json>] [--no-cache] [--suggest <k>] [--metrics <file.json|file.prom>]"
+        + " [--solve [--requests <file>] [--unavailable <file>] [--budget <seconds>]] [--serve <port>]";
+
+    /**
+     * Parses the command-line arguments, loads the input files and exports the schedule.
+     *
+     * @param args command-line arguments passed to the program
+     */
+
+    public static void main(String[] args) {
+        List<Path> inputs = new ArrayList<>();
+        Path departments = null;
+        String format = "pdf";
+        Path outputDir = BasicScheduler.OUTPUT_DIR;
+        boolean batch = false;
+        int threads = 1;
+        Path reportFile = null;
+        boolean useCache = true;
+        int suggestions = 0;
+        Path metricsFile = null;
+        boolean solve = false;
+        Path requestsFile = null;
+        Path unavailableFile = null;
+        long budget = 10;
+        int port = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input" -> inputs.add(Paths.get(value(args, ++i)));
+                case "--departments" -> departments = Paths.get(value(args, ++i));
+                case "--format" -> format = value(args, ++i).toLowerCase(Locale.ROOT);
+                case "--output" -> outputDir = Paths.get(value(args, ++i));
+                case "--batch" -> batch = true;
+                case "--threads" -> threads = (int) number(value(args, ++i), "Threads must be a number: ");
+                case "--report" -> reportFile = Paths.get(value(args, ++i));
+                case "--no-cache" -> useCache = false;
+                case "--metrics" -> metricsFile = Paths.get(value(args, ++i));
+                case "--suggest" -> suggestions = (int) number(value(args, ++i), "Suggestions must be a number: ");
+                case "--solve" -> solve = true;
+                case "--requests" -> requestsFile = Paths.get(value(args, ++i));
+                case "--unavailable" -> unavailableFile = Paths.get(value(args, ++i));
+                case "--serve" -> port = (int) number(value(args, ++i), "Port must be a number: ");
+                case "--budget" -> budget = number(value(args, ++i), "Budget must be a number of seconds: ");
+                default -> exit("Unknown argument: " + args[i]);
+            }
+        }
+        if (inputs.isEmpty() == (departments == null)) {
+            exit("Use either --input or --departments.");
+        }
+        if (departments != null && (reportFile != null || suggestions > 0 || solve || port >= 0)) {
+            exit("--report, --suggest, --solve and --serve can only be used with --input.");
+        }
+
+        BasicScheduler exporter = exporter(format, outputDir, threads);
+
+        try {
+            Files.createDirectories(outputDir);
+
+            SlotCache cache = useCache ? new SlotCache(SlotCache.DEFAULT_FILE) : null;
+            if (departments != null) {
+                exportDepartments(departments, format, outputDir, batch, threads, cache);
+                if (cache != null) {
+                    System.out.println(cache.getHits() + " files from cache, " + cache.getMisses() + " files parsed.");
+                }
+                if (metricsFile != null) {
+                    Metrics.write(metricsFile);
+                }
+                return;
+            }
+
+            Schedule schedule = Schedule.getInstance();
+            ConflictReport report = SlotLoader.load(collectFiles(inputs), schedule, cache);
+            if (cache != null) {
+                System.out.println(cache.getHits() + " files from cache, " + cache.getMisses() + " files parsed.");
+            }
+            if (!report.isEmpty()) {
+                System.err.println(report.summary());
+            }
+            if (reportFile != null) {
+                report.write(reportFile);
+            }
+            if (suggestions > 0) {
+                suggest(schedule, report, suggestions);
+            }
+
+            if (solve) {
+                solve(schedule, requestsFile, unavailableFile, Duration.ofSeconds(budget));
+            }
+
+            List<Slot> slots = schedule.snapshot();
+            System.out.println(slots.size() + " slots scheduled.");
+            if (port >= 0) {
+                // The server runs until the process is stopped, so write the load metrics now
+                if (metricsFile != null) {
+                    Metrics.write(metricsFile);
+                }
+                ScheduleServer server = new ScheduleServer(schedule, port, ScheduleServer.DEFAULT_CACHE_BYTES);
+                System.out.println("Serving timetables on http://localhost:" + server.getPort() + "/timetables");
+                return;
+            }
+            exporter.generateSchedule(schedule.getDays(), schedule.getTimeSlots(), slots);
+            if (batch) {
+                exporter.generateBatch(new ScheduleViews(schedule.getDays(), schedule.getTimeSlots(), slots));
+            }
+            if (metricsFile != null) {
+                Metrics.write(metricsFile);
+            }
+        } catch (IOException e) {
+            System.err.println("There was an error during reading or writing files " + e.getLocalizedMessage());
+            System.exit(1);
+        }
+    }
+
+    private static BasicScheduler exporter(String format, Path outputDir, int threads) {
+        return switch (format) {
+            case "pdf" -> new PDFScheduler(outputDir, threads);
+            case "excel", "xlsx" -> new ExcelScheduler(true, outputDir, threads);
+            default -> {
+                exit("Unknown format: " + format);
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Builds one schedule per subdirectory of the given directory and exports
+     * each into its own output directory. Every department is loaded and
+     * exported on its own thread; the results are printed in name order.
+     */
+
+    private static void exportDepartments(Path directory, String format, Path outputDir, boolean batch, int threads,
+                                          SlotCache cache) throws IOException {
+        List<Path> departments;
+        try (Stream<Path> children = Files.list(directory)) {
+            departments = children.filter(Files::isDirectory).sorted().toList();
+        }
+        if (departments.isEmpty()) {
+            exit("No department directories in " + directory);
+        }
+
+        ScheduleWorkspace workspace = new ScheduleWorkspace();
+        int workers = Math.min(Runtime.getRuntime().availableProcessors(), departments.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            List<Future<String>> results = new ArrayList<>();
+            for (Path department : departments) {
+                results.add(executor.submit(() -> exportDepartment(workspace, department, format, outputDir, batch, threads, cache)));
+            }
+            for (Future<String> result : results) {
+                System.out.println(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exit("Interrupted while exporting the departments.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String exportDepartment(ScheduleWorkspace workspace, Path department, String format, Path outputDir,
+                                           boolean batch, int threads, SlotCache cache) throws IOException {
+        String name = department.getFileName().toString();
+        Schedule schedule = workspace.getOrCreate(name);
+        ConflictReport report = SlotLoader.load(collectFiles(List.of(department)), schedule, cache);
+
+        ScheduleSnapshot snapshot = schedule.view();
+        BasicScheduler exporter = exporter(format, Files.createDirectories(outputDir.resolve(name)), threads);
+        exporter.generateSchedule(snapshot.days(), snapshot.timeSlots(), snapshot.slots());
+        if (batch) {
+            exporter.generateBatch(new ScheduleViews(snapshot.days(), snapshot.timeSlots(), snapshot.slots()));
+        }
+        return name + ": " + snapshot.slots().size() + " slots scheduled"
+               + (report.isEmpty() ? "." : ", " + report.summary());
+    }
+
+    /**
+     * Places the blank-room slots of the schedule and the requested course
+     * hours, and prints the hours that could not be placed.
+     */
+
+    private static void solve(Schedule schedule, Path requestsFile, Path unavailableFile, Duration budget) {
+        TimetableProblem problem = TimetableProblem.fromSchedule(schedule);
+        if (requestsFile != null) {
+            ParseRequests.parse(requestsFile).forEach(problem::addRequest);
+        }
+        if (unavailableFile != null) {
+            ParseRequests.parseUnavailable(unavailableFile, problem);
+        }
+
+        SolverResult result = new TimetableSolver().solve(problem, budget);
+        result.applyTo(schedule);
+        System.out.println(result.summary());
+        for (CourseRequest request : result.unplaced()) {
+            System.err.println("Could not place " + request.hours() + " hour(s) of " + request.course()
+                               + " (" + request.instructor() + ")");
+        }
+    }
+
+    /**
+     * Prints the cheapest free cells for every slot rejected by a conflict.
+     */
+
+    private static void suggest(Schedule schedule, ConflictReport report, int limit) {
+        for (Repair repair : new RepairAdvisor(schedule, limit).suggest(report)) {
+            Slot slot = repair.entry().slot();
+            StringBuilder line = new StringBuilder(slot.getSource() + ":" + slot.getLine() + " " + slot.getCourseCode()
+                                                   + " " + slot.getDay() + " " + slot.getTime() + " ->");
+            if (repair.suggestions().isEmpty()) {
+                line.append(" no free cell");
+            }
+            for (Suggestion suggestion : repair.suggestions()) {
+                line.append(" ").append(suggestion.describe()).append(" (").append(suggestion.cost()).append(")");
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static long number(String value, String message) {
+        try {
+            long number = Long.parseLong(value);
+            if (number < 0) {
+                exit(message + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            exit(message + value);
+            return 0;
+        }
+    }
+
+    /**
+     * Expands directories into the .txt files they contain, sorted by name so
+     * the first-file-wins conflict order is the same on every run.
+     */
+
+    private static List<Path> collectFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> children = Files.list(input)) {
+                    children.filter(path -> path.getFileName().toString().endsWith(".txt"))
+                            .filter(Files::isRegularFile)
+                            .sorted()
+                            .forEach(files::add);
+                }
+            } else if (Files.isRegularFile(input)) {
+                files.add(input);
+            } else {
+                System.err.println("File in " + input + " couldn't be found");
+            }
+        }
+        return files;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            exit("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static void exit(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
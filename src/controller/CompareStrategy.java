@@ -1,4 +1,5 @@
 package controller;
+import model.ConflictReport.Reason;
 import model.Slot;
 
 /**
@@ -21,5 +22,27 @@ public class CompareStrategy {
         return CourseStrategy.compareSlots(slot, otherSlot) && InstructorStrategy.compareSlots(slot, otherSlot)
             && RoomStrategy.compareSlots(slot, otherSlot);
     }
+
+    /**
+     * Finds the first strategy, in the order course, instructor, room, under
+     * which the two slots conflict.
+     *
+     * @param slot The first slot to compare.
+     * @param otherSlot The second slot to compare.
+     * @return the reason of the conflict, or null if the slots are compatible.
+     */
+
+    protected static Reason conflictOf(Slot slot, Slot otherSlot){
+        if(!CourseStrategy.compareSlots(slot, otherSlot)){
+            return Reason.COURSE;
+        }
+        if(!InstructorStrategy.compareSlots(slot, otherSlot)){
+            return Reason.INSTRUCTOR;
+        }
+        if(!RoomStrategy.compareSlots(slot, otherSlot)){
+            return Reason.ROOM;
+        }
+        return null;
+    }
     
 }
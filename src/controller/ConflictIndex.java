@@ -0,0 +1,155 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.CompactSlot;
+import model.ConflictReport;
+import model.ConflictReport.Reason;
+import model.Slot;
+import model.SlotDictionary;
+import model.SlotStore;
+import model.TermCalendar;
+
+/**
+ * Occupancy index over scheduled slots that answers conflict queries with a
+ * few bit tests.
+ *
+ * The slots are added to a SlotStore, whose room, instructor and course
+ * bitsets over the day x period cells cover exactly the criterias checked by
+ * CourseStrategy, InstructorStrategy and RoomStrategy. Only if one of the
+ * bits is set are the slots of that cell looked at, to find the conflicting
+ * slot and hand it to CompareStrategy. Slots whose day or time is not in the
+ * calendar are not indexed; they can't share a day and time with a valid slot.
+ */
+
+public class ConflictIndex {
+
+    private final TermCalendar calendar;
+    private final SlotStore store;
+    // Indexed slots of each cell, in the order they were added
+    private final List<List<Slot>> cells = new ArrayList<>();
+
+    /**
+     * Creates an empty index over the days and periods of the given calendar.
+     */
+
+    public ConflictIndex(TermCalendar calendar) {
+        this.calendar = calendar;
+        this.store = new SlotStore(calendar);
+        for (int cell = 0; cell < store.cellsPerWeek(); cell++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds a slot to the index.
+     *
+     * @param slot The slot to index.
+     */
+
+    public void add(Slot slot) {
+        CompactSlot compact = CompactSlot.of(slot, store.getDictionary(), calendar);
+        if (compact != null) {
+            store.add(compact);
+            cells.get(store.cellOf(compact.day(), compact.period())).add(slot);
+        }
+    }
+
+    /**
+     * Finds an indexed slot that has the same course, instructor or room at the
+     * same day and time. The course is checked first, then the instructor, then
+     * the room; if several slots match, the one added first is returned.
+     *
+     * @param slot The slot to check.
+     * @return the conflicting slot, or null if there is none.
+     */
+
+    public Slot findConflict(Slot slot) {
+        int day = calendar.dayOf(slot.getDay());
+        int period = calendar.periodOf(slot.getTime());
+        if (day < 0 || period < 0) {
+            return null;
+        }
+        // Names the index hasn't seen are -1, which is never occupied
+        SlotDictionary dictionary = store.getDictionary();
+        CompactSlot compact = new CompactSlot((byte) day, (byte) period, dictionary.find(slot.getCourseCode()),
+                                              dictionary.find(slot.getRoom()), dictionary.find(slot.getInstructor()));
+        if (!store.conflicts(compact)) {
+            return null;
+        }
+
+        List<Slot> candidates = cells.get(store.cellOf(day, period));
+        for (Slot other : candidates) {
+            if (other.getCourseCode().equals(slot.getCourseCode())) {
+                return other;
+            }
+        }
+        for (Slot other : candidates) {
+            if (other.getInstructor().equals(slot.getInstructor())) {
+                return other;
+            }
+        }
+        for (Slot other : candidates) {
+            if (other.getRoom().equals(slot.getRoom())) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks a slot against the index using the same rules as CompareStrategy.
+     *
+     * @param slot The slot to check.
+     * @return true if no indexed slot conflicts with it; false otherwise.
+     */
+
+    public boolean isAvailable(Slot slot) {
+        Slot other = findConflict(slot);
+        return other == null || CompareStrategy.compareSlots(slot, other);
+    }
+
+    /**
+     * Checks a slot against the index and records the conflict in the report
+     * if it is not available.
+     *
+     * @param slot The slot to check.
+     * @param report The report conflicts are added to.
+     * @return true if no indexed slot conflicts with it; false otherwise.
+     */
+
+    public boolean isAvailable(Slot slot, ConflictReport report) {
+        return isAvailable(slot, findConflict(slot), report);
+    }
+
+    /**
+     * Records the conflict between a slot and the slot findConflict returned
+     * for it, if there is one.
+     *
+     * @param slot The slot that was checked.
+     * @param other The conflicting slot, or null.
+     * @param report The report conflicts are added to.
+     * @return true if the slots don't conflict; false otherwise.
+     */
+
+    static boolean isAvailable(Slot slot, Slot other, ConflictReport report) {
+        if (other == null) {
+            return true;
+        }
+        Reason reason = CompareStrategy.conflictOf(slot, other);
+        if (reason != null) {
+            report.conflict(reason, slot, other);
+        }
+        return reason == null;
+    }
+
+    /**
+     * Removes every slot from the index.
+     */
+
+    public void clear() {
+        store.clear();
+        cells.forEach(List::clear);
+    }
+}
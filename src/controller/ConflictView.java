@@ -0,0 +1,127 @@
+package controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TitledPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import model.ConflictReport;
+import model.ConflictReport.Entry;
+import solver.RepairAdvisor.Repair;
+import solver.RepairAdvisor.Suggestion;
+
+/**
+ * Table of the lines and slots that were rejected by the last load.
+ *
+ * Each row is one ConflictReport entry with its reason, source file and line,
+ * the offending value, the slot it conflicts with and, for conflicts, the
+ * free cells the slot could be moved to. The report can be saved as CSV or
+ * JSON from here.
+ */
+
+public class ConflictView {
+
+    private final TitledPane pane;
+    private final Label summary = new Label();
+    private final TableView<Entry> table = new TableView<>();
+    private final Consumer<String> onError;
+    private ConflictReport report = new ConflictReport();
+    private final Map<Entry, String> suggestions = new IdentityHashMap<>();
+
+    /**
+     * Creates an empty view.
+     *
+     * @param onError Called with a message if the report can't be saved.
+     */
+
+    public ConflictView(Consumer<String> onError) {
+        this.onError = onError;
+
+        table.getColumns().add(column("Reason", 160, entry -> entry.reason().getLabel()));
+        table.getColumns().add(column("File", 120, entry -> entry.source() == null ? "" : entry.source()));
+        table.getColumns().add(column("Line", 50, entry -> entry.line() > 0 ? String.valueOf(entry.line()) : ""));
+        table.getColumns().add(column("Value", 120, Entry::detail));
+        table.getColumns().add(column("Conflicts with", 200, entry -> entry.other() == null ? ""
+            : entry.other().getSource() + ":" + entry.other().getLine() + "  " + entry.other().getCourseCode()));
+        table.getColumns().add(column("Suggestions", 320, entry -> suggestions.getOrDefault(entry, "")));
+        table.setPrefHeight(250);
+        table.setPlaceholder(new Label("No conflicts"));
+
+        Button saveButton = new Button("Save Report");
+        saveButton.setOnAction(e -> save());
+
+        VBox content = new VBox(10, summary, table, saveButton);
+        content.setPadding(new Insets(5));
+        pane = new TitledPane("Conflicts", content);
+    }
+
+    /**
+     * Returns the node that shows the report.
+     */
+
+    public TitledPane getNode() {
+        return pane;
+    }
+
+    /**
+     * Shows the given report.
+     */
+
+    public void update(ConflictReport report) {
+        update(report, List.of());
+    }
+
+    /**
+     * Shows the given report with the suggested alternatives for its conflicts.
+     */
+
+    public void update(ConflictReport report, List<Repair> repairs) {
+        this.report = report;
+        suggestions.clear();
+        for (Repair repair : repairs) {
+            suggestions.put(repair.entry(), repair.suggestions().isEmpty() ? "no free cell"
+                : String.join(", ", repair.suggestions().stream().map(Suggestion::describe).toList()));
+        }
+        summary.setText(report.summary());
+        table.setItems(FXCollections.observableArrayList(report.getEntries()));
+    }
+
+    private void save() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Conflict Report");
+        chooser.setInitialFileName("conflicts.csv");
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+            new FileChooser.ExtensionFilter("JSON Files", "*.json")
+        );
+        File file = chooser.showSaveDialog(pane.getScene() == null ? null : pane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            report.write(file.toPath());
+        } catch (IOException e) {
+            onError.accept("Could not save the report: " + e.getLocalizedMessage());
+        }
+    }
+
+    private static TableColumn<Entry, String> column(String title, double width, Function<Entry, String> value) {
+        TableColumn<Entry, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(data -> new SimpleStringProperty(value.apply(data.getValue())));
+        return column;
+    }
+}
@@ -21,7 +21,6 @@ public class CourseStrategy {
 	protected static boolean compareSlots(Slot slot, Slot otherSlot) {
 		if(slot.getDay().equals(otherSlot.getDay()) && slot.getTime().equals(otherSlot.getTime())
 		   && slot.getCourseCode().equals(otherSlot.getCourseCode())) {
-			System.err.println("\033[31mCourse is not available: " + slot.getCourseCode() + " for " + slot.toString() + "\033[0m");
 			return false;
 		}
 		return true;
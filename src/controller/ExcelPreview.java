@@ -0,0 +1,285 @@
+package controller;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+
+/**
+ * Preview of an Excel file with one lazily loaded table per sheet.
+ *
+ * Sheets are read with POI's SAX based event reader on background threads
+ * instead of materializing an XSSFWorkbook. Rows are handed to the virtualized
+ * TableView in batches, and a sheet is only parsed further once the table
+ * shows rows close to the end of what has been loaded so far.
+ */
+
+public class ExcelPreview {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "excel-preview");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private final Consumer<String> onError;
+    private final TabPane tabPane = new TabPane();
+    private final List<SheetLoader> loaders = new ArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates the preview and starts reading the sheet names in the background.
+     * The first sheet is loaded right away, the others when their tab is selected.
+     *
+     * @param file    The .xlsx file to preview.
+     * @param onError Called on the JavaFX application thread with a message if the file can't be read.
+     */
+
+    public ExcelPreview(File file, Consumer<String> onError) {
+        this.file = file;
+        this.onError = onError;
+        tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        tabPane.setPrefHeight(400);
+
+        workers.execute(() -> {
+            try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+                List<String> names = new ArrayList<>();
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+                while (sheets.hasNext()) {
+                    sheets.next().close();
+                    names.add(sheets.getSheetName());
+                }
+                Platform.runLater(() -> showTabs(names));
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> onError.accept("Failed to load Excel preview."));
+            }
+        });
+    }
+
+    /**
+     * Returns the node that shows the preview.
+     */
+
+    public TabPane getNode() {
+        return tabPane;
+    }
+
+    /**
+     * Stops all sheet readers. Must be called once the preview is removed from the UI.
+     */
+
+    public void close() {
+        closed = true;
+        for (SheetLoader loader : loaders) {
+            synchronized (loader) {
+                loader.notifyAll();
+            }
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * Creates one tab per sheet and loads a sheet's rows the first time its tab is selected.
+     */
+
+    private void showTabs(List<String> names) {
+        if (closed) {
+            return;
+        }
+        for (int i = 0; i < names.size(); i++) {
+            TableView<String[]> tableView = new TableView<>();
+            SheetLoader loader = new SheetLoader(i, tableView);
+            loaders.add(loader);
+            tableView.setRowFactory(table -> new TableRow<>() {
+                @Override
+                public void updateIndex(int index) {
+                    super.updateIndex(index);
+                    if (index >= 0) {
+                        loader.request(index);
+                    }
+                }
+            });
+
+            Tab tab = new Tab(names.get(i), tableView);
+            tab.setOnSelectionChanged(e -> {
+                if (tab.isSelected()) {
+                    loader.start();
+                }
+            });
+            tabPane.getTabs().add(tab);
+        }
+        if (!loaders.isEmpty()) {
+            loaders.get(0).start();
+        }
+    }
+
+    /**
+     * Appends a batch of rows to a table, adding columns if the rows are wider
+     * than the table. Runs on the JavaFX application thread.
+     */
+
+    private void addRows(TableView<String[]> tableView, List<String[]> rows) {
+        if (closed) {
+            return;
+        }
+        for (String[] row : rows) {
+            for (int i = tableView.getColumns().size(); i < row.length; i++) {
+                final int colIndex = i;
+                TableColumn<String[], String> column = new TableColumn<>("Column " + (i + 1));
+                column.setCellValueFactory(cellData -> {
+                    String[] values = cellData.getValue();
+                    return new SimpleStringProperty(colIndex < values.length ? values[colIndex] : "");
+                });
+                tableView.getColumns().add(column);
+            }
+        }
+        tableView.getItems().addAll(rows);
+    }
+
+    /**
+     * Streams the rows of one sheet into its table. Parsing pauses after each
+     * batch until the table asks for rows beyond what has been loaded.
+     */
+
+    private class SheetLoader implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final int sheetIndex;
+        private final TableView<String[]> tableView;
+        private final List<String> currentRow = new ArrayList<>();
+        private List<String[]> batch = new ArrayList<>();
+        private boolean started;
+
+        // Guarded by this
+        private int loadedRows;
+        private int requestedRows = 2 * BATCH_SIZE;
+
+        SheetLoader(int sheetIndex, TableView<String[]> tableView) {
+            this.sheetIndex = sheetIndex;
+            this.tableView = tableView;
+        }
+
+        /**
+         * Starts reading the sheet unless it is already being read.
+         * Called on the JavaFX application thread.
+         */
+
+        void start() {
+            if (!started && !closed) {
+                started = true;
+                workers.execute(this::read);
+            }
+        }
+
+        /**
+         * Makes sure rows up to a batch beyond the given index get loaded.
+         */
+
+        synchronized void request(int index) {
+            if (index + BATCH_SIZE > requestedRows) {
+                requestedRows = index + 2 * BATCH_SIZE;
+                notifyAll();
+            }
+        }
+
+        private void read() {
+            try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                for (int i = 0; sheets.hasNext(); i++) {
+                    try (InputStream sheet = sheets.next()) {
+                        if (i == sheetIndex) {
+                            XMLReader parser = XMLHelper.newXMLReader();
+                            parser.setContentHandler(new XSSFSheetXMLHandler(
+                                reader.getStylesTable(), strings, this, new DataFormatter(), false));
+                            parser.parse(new InputSource(sheet));
+                            break;
+                        }
+                    }
+                }
+                publish();
+            } catch (CancellationException e) {
+                // The preview was closed while the sheet was being read
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> onError.accept("Failed to load Excel preview."));
+            }
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            currentRow.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            batch.add(currentRow.toArray(new String[0]));
+            if (batch.size() >= BATCH_SIZE) {
+                publish();
+                awaitDemand();
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? currentRow.size() : new CellReference(cellReference).getCol();
+            while (currentRow.size() < column) {
+                currentRow.add("");
+            }
+            currentRow.add(formattedValue == null ? "" : formattedValue);
+        }
+
+        private void publish() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<String[]> rows = batch;
+            batch = new ArrayList<>();
+            synchronized (this) {
+                loadedRows += rows.size();
+            }
+            Platform.runLater(() -> addRows(tableView, rows));
+        }
+
+        private synchronized void awaitDemand() {
+            while (!closed && loadedRows >= requestedRows) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException();
+                }
+            }
+            if (closed) {
+                throw new CancellationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import controller.SlotLoader.FileResult;
+import model.ConflictReport;
+import model.Schedule;
+import model.Slot;
+import model.SlotDictionary;
+
+/**
+ * Keeps a schedule in sync with a directory of instructor files, one changed
+ * file at a time.
+ *
+ * The loader remembers the candidate slots of every file (the result of
+ * parsing, validation and the conflict check within the file) and which of
+ * them were accepted. Every conflict key is made of a slot's day and time plus
+ * its course, instructor or room, so a changed file can only change decisions
+ * in the day x time cells its old and new slots are in. Only the candidates of
+ * those cells are retracted and merged again, in file order, which gives the
+ * same schedule as a full reload of the directory.
+ *
+ * Files have priority by name, like in HeadlessMain. The loader is not
+ * thread-safe; load, apply and report must be called from the same thread.
+ */
+
+public class IncrementalLoader {
+
+    /**
+     * A day x time cell of the schedule, e.g. ("Monday", "08:45").
+     */
+
+    public record Cell(String day, String time) {
+
+        static Cell of(Slot slot) {
+            return new Cell(slot.getDay(), slot.getTime());
+        }
+    }
+
+    private final Schedule schedule;
+    private final List<Path> files = new ArrayList<>();
+    private final Map<Path, FileResult> results = new HashMap<>();
+    private final Map<String, Integer> ranks = new HashMap<>();
+    private final Map<Cell, List<Slot>> candidatesByCell = new HashMap<>();
+    private final Set<Slot> accepted = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Slot, ConflictReport.Entry> rejections = new IdentityHashMap<>();
+    private final Comparator<Slot> order = Comparator.comparingInt(this::rankOf).thenComparingInt(Slot::getLine);
+
+    /**
+     * Creates a loader that keeps the given schedule up to date.
+     */
+
+    public IncrementalLoader(Schedule schedule) {
+        this.schedule = schedule;
+    }
+
+    /**
+     * Clears the schedule and loads every .txt file of the directory.
+     *
+     * @param directory The directory of instructor files.
+     * @return the cells of all loaded slots.
+     */
+
+    public Set<Cell> load(Path directory) throws IOException {
+        List<Path> listed;
+        try (Stream<Path> children = Files.list(directory)) {
+            listed = children.filter(IncrementalLoader::isInstructorFile).sorted().toList();
+        }
+
+        schedule.clear();
+        files.clear();
+        results.clear();
+        candidatesByCell.clear();
+        accepted.clear();
+        rejections.clear();
+
+        files.addAll(listed);
+        updateRanks();
+        List<FileResult> loaded = SlotLoader.readAll(files, null, schedule.getCalendar(), new SlotDictionary());
+        Set<Cell> cells = new HashSet<>();
+        for (int i = 0; i < files.size(); i++) {
+            results.put(files.get(i), loaded.get(i));
+            index(loaded.get(i).candidates(), cells);
+        }
+        recheck(cells, List.of());
+        return cells;
+    }
+
+    /**
+     * Checks whether a path is an instructor file the loader would pick up.
+     */
+
+    public static boolean isInstructorFile(Path path) {
+        return path.getFileName().toString().endsWith(".txt") && Files.isRegularFile(path);
+    }
+
+    /**
+     * Reads a file and runs the checks that only depend on the file itself.
+     * It does not touch the loader's state, so it can run on any thread.
+     *
+     * @param file The changed file.
+     * @return the result of the file, or null if it no longer exists.
+     */
+
+    FileResult prepare(Path file) {
+        return isInstructorFile(file) ? SlotLoader.readFile(file, schedule.getCalendar()) : null;
+    }
+
+    /**
+     * Replaces the slots of one file with a new result from prepare, re-checks
+     * the slots of every file in the affected cells and updates the schedule.
+     *
+     * @param file   The changed file.
+     * @param result Its new result, or null if the file was deleted.
+     * @return the cells whose slots may have changed.
+     */
+
+    Set<Cell> apply(Path file, FileResult result) {
+        FileResult old = result == null ? results.remove(file) : results.put(file, result);
+        if (old == null && result == null) {
+            return Set.of();
+        }
+        if (result == null) {
+            files.remove(file);
+            updateRanks();
+        } else if (old == null) {
+            int position = Collections.binarySearch(files, file);
+            files.add(-position - 1, file);
+            updateRanks();
+        }
+
+        List<Slot> retired = old == null ? List.of() : old.candidates();
+        Set<Cell> cells = new HashSet<>();
+        unindex(retired, cells);
+        if (result != null) {
+            index(result.candidates(), cells);
+        }
+        recheck(cells, retired);
+        return cells;
+    }
+
+    /**
+     * Builds the report of every rejected line and slot, in file order.
+     */
+
+    public ConflictReport report() {
+        ConflictReport report = new ConflictReport();
+        for (Path file : files) {
+            FileResult result = results.get(file);
+            report.addAll(result.report());
+            for (Slot slot : result.candidates()) {
+                ConflictReport.Entry entry = rejections.get(slot);
+                if (entry != null) {
+                    report.add(entry);
+                }
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Returns the accepted slots of the given cells, in file order. That is
+     * all a view needs to redraw the cells returned by apply.
+     */
+
+    public List<Slot> acceptedIn(Set<Cell> cells) {
+        List<Slot> slots = new ArrayList<>();
+        for (Cell cell : cells) {
+            for (Slot slot : candidatesByCell.getOrDefault(cell, List.of())) {
+                if (accepted.contains(slot)) {
+                    slots.add(slot);
+                }
+            }
+        }
+        slots.sort(order);
+        return slots;
+    }
+
+    /**
+     * Returns the loaded files in priority order.
+     */
+
+    public List<Path> getFiles() {
+        return List.copyOf(files);
+    }
+
+    /**
+     * Retracts the decisions for every candidate in the given cells and merges
+     * them again in file order. Slots of other cells can't share a conflict key
+     * with them, so their decisions stay the same.
+     *
+     * @param cells   The affected cells.
+     * @param retired Candidates of the old version of a changed file.
+     */
+
+    private void recheck(Set<Cell> cells, Collection<Slot> retired) {
+        List<Slot> affected = new ArrayList<>();
+        for (Cell cell : cells) {
+            affected.addAll(candidatesByCell.getOrDefault(cell, List.of()));
+        }
+        affected.sort(order);
+
+        List<Slot> removed = new ArrayList<>();
+        for (Collection<Slot> slots : List.of(retired, affected)) {
+            for (Slot slot : slots) {
+                rejections.remove(slot);
+                if (accepted.remove(slot)) {
+                    removed.add(slot);
+                }
+            }
+        }
+
+        // Same merge as SlotLoader.load: a file's slots are checked against earlier files only
+        ConflictIndex index = new ConflictIndex(schedule.getCalendar());
+        ConflictReport report = new ConflictReport();
+        List<Slot> added = new ArrayList<>();
+        int start = 0;
+        while (start < affected.size()) {
+            int rank = rankOf(affected.get(start));
+            int end = start;
+            List<Slot> validSlots = new ArrayList<>();
+            while (end < affected.size() && rankOf(affected.get(end)) == rank) {
+                Slot slot = affected.get(end++);
+                int before = report.size();
+                if (index.isAvailable(slot, report)) {
+                    validSlots.add(slot);
+                } else {
+                    rejections.put(slot, report.getEntries().get(before));
+                }
+            }
+            validSlots.forEach(index::add);
+            added.addAll(validSlots);
+            start = end;
+        }
+
+        accepted.addAll(added);
+        schedule.removeSlots(removed);
+        schedule.insertSlots(added, order);
+    }
+
+    private void index(List<Slot> candidates, Set<Cell> cells) {
+        for (Slot slot : candidates) {
+            Cell cell = Cell.of(slot);
+            candidatesByCell.computeIfAbsent(cell, key -> new ArrayList<>()).add(slot);
+            cells.add(cell);
+        }
+    }
+
+    private void unindex(List<Slot> candidates, Set<Cell> cells) {
+        for (Slot slot : candidates) {
+            Cell cell = Cell.of(slot);
+            List<Slot> slots = candidatesByCell.get(cell);
+            if (slots != null) {
+                slots.removeIf(other -> other == slot);
+                if (slots.isEmpty()) {
+                    candidatesByCell.remove(cell);
+                }
+            }
+            cells.add(cell);
+        }
+    }
+
+    private void updateRanks() {
+        ranks.clear();
+        for (int i = 0; i < files.size(); i++) {
+            ranks.put(files.get(i).getFileName().toString(), i);
+        }
+    }
+
+    private int rankOf(Slot slot) {
+        return ranks.getOrDefault(slot.getSource(), Integer.MAX_VALUE);
+    }
+}
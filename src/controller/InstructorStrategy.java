@@ -22,7 +22,6 @@ public class InstructorStrategy{
 	protected static boolean compareSlots(Slot slot, Slot otherSlot) {
 		if(slot.getDay().equals(otherSlot.getDay()) && slot.getTime().equals(otherSlot.getTime()) 
 		   && slot.getInstructor().equals(otherSlot.getInstructor())) {
-			System.err.println("\033[31mInstructor is not available: " + slot.getInstructor() + " for " + slot.toString() + "\033[0m");
 			return false;
 		}
 		return true;
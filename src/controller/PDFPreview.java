@@ -0,0 +1,241 @@
+package controller;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.Bounds;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+/**
+ * Scrollable preview of a PDF file that renders pages in the background.
+ *
+ * The document is opened and rasterized on a dedicated worker thread, so the
+ * JavaFX application thread never blocks on PDFBox. Each page starts as an
+ * empty placeholder with the page's aspect ratio and is only rendered once it
+ * scrolls into view. Rendered pages are cached at a DPI that matches the
+ * current viewport width and re-rendered when the width changes noticeably.
+ */
+
+public class PDFPreview {
+
+    private static final double PAGE_GAP = 10;
+    private static final double MIN_PAGE_WIDTH = 200;
+
+    /**
+     * Relative width change after which cached pages are rendered again.
+     */
+
+    private static final double RESIZE_TOLERANCE = 0.1;
+
+    // PDFBox documents are not thread-safe, so every preview uses a single worker
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pdf-preview");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final VBox pageContainer = new VBox(PAGE_GAP);
+    private final ScrollPane scrollPane = new ScrollPane(pageContainer);
+    private final Consumer<String> onError;
+
+    // Accessed only on the worker thread
+    private PDDocument document;
+    private PDFRenderer renderer;
+
+    // Accessed only on the JavaFX application thread
+    private final List<StackPane> pages = new ArrayList<>();
+    private final List<ImageView> views = new ArrayList<>();
+    private final Map<Integer, Double> renderedWidths = new HashMap<>();
+    private double[] aspectRatios = new double[0];
+    private volatile boolean closed;
+
+    /**
+     * Creates the preview and starts loading the document in the background.
+     *
+     * @param file    The PDF file to preview.
+     * @param onError Called on the JavaFX application thread with a message if the file can't be read.
+     */
+
+    public PDFPreview(File file, Consumer<String> onError) {
+        this.onError = onError;
+
+        pageContainer.setAlignment(Pos.CENTER);
+        pageContainer.getChildren().add(new Label("Loading preview..."));
+        scrollPane.setPrefViewportHeight(500);
+        scrollPane.setFitToWidth(true);
+
+        scrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> renderVisiblePages());
+        scrollPane.viewportBoundsProperty().addListener((obs, oldValue, newValue) -> {
+            resizePages();
+            renderVisiblePages();
+        });
+
+        worker.execute(() -> load(file));
+    }
+
+    /**
+     * Returns the node that shows the preview.
+     */
+
+    public ScrollPane getNode() {
+        return scrollPane;
+    }
+
+    /**
+     * Stops rendering and releases the document. Must be called on the JavaFX
+     * application thread once the preview is removed from the UI. Calling it
+     * again does nothing.
+     */
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        worker.execute(() -> {
+            try {
+                if (document != null) {
+                    document.close();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        worker.shutdown();
+    }
+
+    /**
+     * Opens the document and reads its page sizes. Runs on the worker thread.
+     */
+
+    private void load(File file) {
+        try {
+            document = PDDocument.load(file);
+            renderer = new PDFRenderer(document);
+
+            double[] ratios = new double[document.getNumberOfPages()];
+            for (int i = 0; i < ratios.length; i++) {
+                PDRectangle box = document.getPage(i).getCropBox();
+                ratios[i] = box.getHeight() / box.getWidth();
+            }
+            Platform.runLater(() -> showPlaceholders(ratios));
+        } catch (Exception e) {
+            e.printStackTrace();
+            Platform.runLater(() -> onError.accept("Failed to preview PDF."));
+        }
+    }
+
+    /**
+     * Replaces the loading label with one empty placeholder per page.
+     */
+
+    private void showPlaceholders(double[] ratios) {
+        if (closed) {
+            return;
+        }
+        aspectRatios = ratios;
+        pageContainer.getChildren().clear();
+
+        for (int i = 0; i < ratios.length; i++) {
+            ImageView view = new ImageView();
+            view.setPreserveRatio(true);
+            StackPane page = new StackPane(view);
+            page.setStyle("-fx-background-color: white; -fx-border-color: lightgray;");
+            views.add(view);
+            pages.add(page);
+        }
+        pageContainer.getChildren().addAll(pages);
+        resizePages();
+
+        // Layout has to run before the visible pages can be determined
+        Platform.runLater(this::renderVisiblePages);
+    }
+
+    /**
+     * Sizes the page placeholders to the viewport width.
+     */
+
+    private void resizePages() {
+        double width = pageWidth();
+        for (int i = 0; i < pages.size(); i++) {
+            double height = width * aspectRatios[i];
+            pages.get(i).setPrefSize(width, height);
+            pages.get(i).setMaxSize(width, height);
+            views.get(i).setFitWidth(width);
+        }
+    }
+
+    /**
+     * Requests rendering for every page that intersects the viewport and has
+     * not been rendered at a width close to the current one.
+     */
+
+    private void renderVisiblePages() {
+        if (closed || pages.isEmpty()) {
+            return;
+        }
+        Bounds viewport = scrollPane.localToScene(scrollPane.getLayoutBounds());
+        double width = pageWidth();
+
+        for (int i = 0; i < pages.size(); i++) {
+            StackPane page = pages.get(i);
+            if (!page.localToScene(page.getLayoutBounds()).intersects(viewport)) {
+                continue;
+            }
+            Double renderedWidth = renderedWidths.get(i);
+            if (renderedWidth == null || Math.abs(renderedWidth - width) > width * RESIZE_TOLERANCE) {
+                renderedWidths.put(i, width);
+                int pageIndex = i;
+                worker.execute(() -> render(pageIndex, width));
+            }
+        }
+    }
+
+    /**
+     * Rasterizes a page at the DPI that makes it as wide as the given width.
+     * Runs on the worker thread and hands the image to the JavaFX application thread.
+     */
+
+    private void render(int pageIndex, double width) {
+        if (closed) {
+            return;
+        }
+        try {
+            float pointWidth = document.getPage(pageIndex).getCropBox().getWidth();
+            float dpi = (float) (width * 72 / pointWidth);
+            BufferedImage bim = renderer.renderImageWithDPI(pageIndex, dpi);
+            Image fxImage = SwingFXUtils.toFXImage(bim, null);
+            Platform.runLater(() -> {
+                if (!closed) {
+                    views.get(pageIndex).setImage(fxImage);
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private double pageWidth() {
+        double viewportWidth = scrollPane.getViewportBounds().getWidth() - 2 * PAGE_GAP;
+        return Math.max(MIN_PAGE_WIDTH, viewportWidth);
+    }
+}
@@ -21,7 +21,6 @@ public class RoomStrategy{
 	protected static boolean compareSlots(Slot slot, Slot otherSlot) {
 		if(slot.getDay().equals(otherSlot.getDay()) && slot.getTime().equals(otherSlot.getTime())
 		   && slot.getRoom().equals(otherSlot.getRoom())) {
-			System.err.println("\033[31mRoom is not available: " + slot.getRoom() + " for " + slot.toString() + "\033[0m");
 			return false;
 		}
 		return true;
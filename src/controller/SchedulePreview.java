@@ -0,0 +1,133 @@
+package controller;
+
+import java.util.StringJoiner;
+
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TitledPane;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import model.ScheduleGrid;
+
+/**
+ * Live day x time view of the schedule, drawn directly from its slots.
+ *
+ * Unlike the file previews it does not need an exported document; the grid
+ * is filled from a ScheduleGrid and can be refreshed whenever the schedule
+ * changes. Cell labels are reused between updates, only their text changes.
+ */
+
+public class SchedulePreview {
+
+    private static final String HEADER_STYLE =
+        "-fx-background-color: #ff8080; -fx-font-weight: bold; -fx-border-color: black; -fx-border-width: 0.5;";
+    private static final String TIME_STYLE =
+        "-fx-background-color: #d9d9d9; -fx-font-weight: bold; -fx-border-color: black; -fx-border-width: 0.5;";
+    private static final String CELL_STYLE =
+        "-fx-border-color: black; -fx-border-width: 0.5;";
+
+    private final GridPane gridPane = new GridPane();
+    private final TitledPane pane;
+    private String[] days = new String[0];
+    private String[] timeSlots = new String[0];
+    private Label[][] cells = new Label[0][0];
+
+    /**
+     * Creates an empty preview.
+     */
+
+    public SchedulePreview() {
+        ScrollPane scrollPane = new ScrollPane(gridPane);
+        scrollPane.setPrefViewportHeight(400);
+        scrollPane.setFitToWidth(true);
+        pane = new TitledPane("Timetable", scrollPane);
+    }
+
+    /**
+     * Returns the node that shows the preview.
+     */
+
+    public TitledPane getNode() {
+        return pane;
+    }
+
+    /**
+     * Shows the given grid. The header row and time column are only rebuilt
+     * when the grid's days or time slots differ from the ones shown.
+     *
+     * @param grid The grid of the current schedule.
+     */
+
+    public void update(ScheduleGrid grid) {
+        if (grid.getDays() != days || grid.getTimeSlots() != timeSlots) {
+            build(grid.getDays(), grid.getTimeSlots());
+        }
+        for (int i = 0; i < timeSlots.length; i++) {
+            for (int j = 0; j < days.length; j++) {
+                updateCell(grid, i, j);
+            }
+        }
+    }
+
+    /**
+     * Refreshes the text of a single cell from the grid.
+     *
+     * @param grid The grid of the current schedule.
+     * @param time Row index into the time slots.
+     * @param day  Column index into the days.
+     */
+
+    public void updateCell(ScheduleGrid grid, int time, int day) {
+        StringJoiner text = new StringJoiner("\n");
+        for (ScheduleGrid.Entry entry : grid.getCell(time, day)) {
+            text.add(entry.slot().getRoom().trim() + "  " + entry.course() + "  " + entry.instructor());
+        }
+        cells[time][day].setText(text.toString());
+    }
+
+    private void build(String[] days, String[] timeSlots) {
+        this.days = days;
+        this.timeSlots = timeSlots;
+        this.cells = new Label[timeSlots.length][days.length];
+
+        gridPane.getChildren().clear();
+        gridPane.getColumnConstraints().clear();
+        gridPane.setPadding(new Insets(5));
+
+        ColumnConstraints timeColumn = new ColumnConstraints();
+        timeColumn.setMinWidth(90);
+        gridPane.getColumnConstraints().add(timeColumn);
+        for (int j = 0; j < days.length; j++) {
+            ColumnConstraints dayColumn = new ColumnConstraints();
+            dayColumn.setPercentWidth(85.0 / days.length);
+            dayColumn.setHalignment(HPos.CENTER);
+            gridPane.getColumnConstraints().add(dayColumn);
+        }
+
+        gridPane.add(label("Hours", TIME_STYLE), 0, 0);
+        for (int j = 0; j < days.length; j++) {
+            gridPane.add(label(days[j], HEADER_STYLE), j + 1, 0);
+        }
+        for (int i = 0; i < timeSlots.length; i++) {
+            gridPane.add(label(timeSlots[i], TIME_STYLE), 0, i + 1);
+            for (int j = 0; j < days.length; j++) {
+                cells[i][j] = label("", CELL_STYLE);
+                gridPane.add(cells[i][j], j + 1, i + 1);
+            }
+        }
+    }
+
+    private static Label label(String text, String style) {
+        Label label = new Label(text);
+        label.setStyle(style);
+        label.setWrapText(true);
+        label.setAlignment(Pos.CENTER);
+        label.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        label.setMinHeight(40);
+        label.setPadding(new Insets(4));
+        return label;
+    }
+}
@@ -0,0 +1,383 @@
+package controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import model.ConflictReport;
+import model.Schedule;
+import model.ScheduleGrid;
+import model.ScheduleSnapshot;
+import model.ScheduleViews;
+import util.Metrics;
+import view.BasicScheduler;
+import view.ExcelScheduler;
+import view.PDFScheduler;
+
+/**
+ * Small HTTP server that serves the timetables of a schedule on localhost.
+ *
+ * Routes:
+ * GET /timetables                          index of all timetables as JSON
+ * GET /timetables/schedule.{json,pdf,xlsx} the whole schedule
+ * GET /timetables/{kind}/{name}.{json,pdf,xlsx}
+ *     the timetable of one instructor, room or course, e.g.
+ *     /timetables/instructor/AYigit.pdf or /timetables/room/D1.xlsx
+ *
+ * Rendered documents are kept in an LRU cache bounded by their total size.
+ * Every response carries an ETag made from a random epoch of the server, the
+ * schedule version and the path, so a client that sends it back in
+ * If-None-Match gets a 304 as long as the schedule did not change, and
+ * nothing is rendered again. The version counter starts over when the
+ * process restarts, and the epoch keeps ETags of an earlier run from matching.
+ */
+
+public class ScheduleServer implements AutoCloseable {
+
+    /**
+     * Default size of the render cache.
+     */
+
+    public static final long DEFAULT_CACHE_BYTES = 64L << 20;
+
+    private static final String PREFIX = "/timetables";
+
+    private final Schedule schedule;
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final RenderCache cache;
+    private final BasicScheduler pdfScheduler = new PDFScheduler();
+    private final BasicScheduler excelScheduler = new ExcelScheduler(true);
+    // Timetables of the version they were built for
+    private volatile Views views;
+
+    private record Views(long version, ScheduleGrid schedule, ScheduleViews timetables) {}
+
+    private record Document(byte[] body, String contentType) {}
+
+    /**
+     * What a path resolves to: the index (grid is null) or a timetable in a format.
+     */
+
+    private record Target(String title, ScheduleGrid grid, String format) {}
+
+    /**
+     * Starts serving the schedule on localhost.
+     *
+     * @param schedule   The schedule to serve; later changes are picked up by its version.
+     * @param port       Port to listen on, or 0 for any free port.
+     * @param cacheBytes Maximum total size of the cached documents.
+     */
+
+    public ScheduleServer(Schedule schedule, int port, long cacheBytes) throws IOException {
+        this.schedule = schedule;
+        this.cache = new RenderCache(cacheBytes);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        server.createContext(PREFIX, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     */
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server and its worker threads.
+     */
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                send(exchange, 405, "text/plain; charset=utf-8", "Only GET and HEAD are supported\n".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            Views current = currentViews();
+            String path = exchange.getRequestURI().getRawPath();
+            Target target = resolve(current, path);
+            if (target == null) {
+                send(exchange, 404, "text/plain; charset=utf-8", ("No timetable at " + path + "\n").getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            String etag = "\"" + epoch + "-" + current.version() + "-" + Integer.toHexString(path.hashCode()) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                send(exchange, 304, null, null);
+                return;
+            }
+
+            String key = current.version() + " " + path;
+            Document document = cache.get(key);
+            if (document == null) {
+                Metrics.counter("render_cache_misses_total").increment();
+                document = render(current, target);
+                cache.put(key, document);
+            } else {
+                Metrics.counter("render_cache_hits_total").increment();
+            }
+            send(exchange, 200, document.contentType(), document.body());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, "text/plain; charset=utf-8", "Could not render the timetable\n".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        Metrics.counter("http_requests_total", "status", String.valueOf(status)).increment();
+        Headers headers = exchange.getResponseHeaders();
+        if (contentType != null) {
+            headers.set("Content-Type", contentType);
+        }
+        boolean head = exchange.getRequestMethod().equals("HEAD");
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, head ? -1 : body.length);
+        if (!head) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Returns the timetables of the schedule's current version, building them
+     * again only after the schedule changed. Documents of older versions are
+     * dropped from the cache then.
+     */
+
+    private Views currentViews() {
+        Views current = views;
+        long version = schedule.getVersion();
+        if (current == null || current.version() != version) {
+            ScheduleSnapshot snapshot = schedule.view();
+            current = new Views(snapshot.version(), new ScheduleGrid(snapshot.days(), snapshot.timeSlots(), snapshot.slots()),
+                                new ScheduleViews(snapshot.days(), snapshot.timeSlots(), snapshot.slots()));
+            views = current;
+            cache.clear();
+        }
+        return current;
+    }
+
+    /**
+     * Finds what a path refers to, without rendering it.
+     *
+     * @return the target, or null if there is no timetable at the path.
+     */
+
+    private static Target resolve(Views current, String path) {
+        if (path.equals(PREFIX) || path.equals(PREFIX + "/")) {
+            return new Target("Index", null, "json");
+        }
+        if (!path.startsWith(PREFIX + "/")) {
+            return null;
+        }
+
+        String[] parts = path.substring(PREFIX.length() + 1).split("/");
+        String file = parts[parts.length - 1];
+        int dot = file.lastIndexOf('.');
+        if (dot <= 0 || parts.length > 2) {
+            return null;
+        }
+        String name = decode(file.substring(0, dot));
+        if (name == null) {
+            return null;
+        }
+        String format = file.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (!format.equals("json") && !format.equals("pdf") && !format.equals("xlsx")) {
+            return null;
+        }
+
+        if (parts.length == 1) {
+            if (!name.equals("schedule")) {
+                return null;
+            }
+            return new Target("Schedule", current.schedule(), format);
+        }
+        ScheduleViews.Kind kind = kindOf(parts[0]);
+        ScheduleGrid grid = kind == null ? null : current.timetables().get(kind).get(name);
+        return grid == null ? null : new Target(kind.getLabel() + ": " + name, grid, format);
+    }
+
+    /**
+     * Decodes one percent-encoded segment of a raw path. Unlike in a query
+     * string, '+' is a plus sign in a path, e.g. "C%2B%2B101" and "C++101"
+     * are both "C++101".
+     *
+     * @return the decoded segment, or null if it is not validly encoded.
+     */
+
+    private static String decode(String segment) {
+        try {
+            return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Renders the document of a resolved path.
+     */
+
+    private Document render(Views current, Target target) {
+        if (target.grid() == null) {
+            return new Document(index(current).getBytes(StandardCharsets.UTF_8), "application/json; charset=utf-8");
+        }
+
+        long start = System.nanoTime();
+        try {
+            Document document = switch (target.format()) {
+                case "pdf" -> new Document(write(pdfScheduler, target.title(), target.grid()), "application/pdf");
+                case "xlsx" -> new Document(write(excelScheduler, target.title(), target.grid()),
+                                            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+                default -> new Document(json(target.title(), current.version(), target.grid()).getBytes(StandardCharsets.UTF_8),
+                                        "application/json; charset=utf-8");
+            };
+            Metrics.histogram("render_seconds", "format", target.format()).recordSince(start);
+            return document;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not render " + target.title(), e);
+        }
+    }
+
+    private static byte[] write(BasicScheduler exporter, String title, ScheduleGrid grid) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.writeTimetable(title, grid, out);
+        return out.toByteArray();
+    }
+
+    private static ScheduleViews.Kind kindOf(String segment) {
+        for (ScheduleViews.Kind kind : ScheduleViews.Kind.values()) {
+            if (kind.name().equalsIgnoreCase(segment)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists every timetable with the path it is served at in each format.
+     */
+
+    private static String index(Views current) {
+        StringBuilder json = new StringBuilder("{\"version\": ").append(current.version())
+            .append(", \"schedule\": ").append(paths(PREFIX + "/schedule"));
+        for (ScheduleViews.Kind kind : ScheduleViews.Kind.values()) {
+            String segment = kind.name().toLowerCase(Locale.ROOT);
+            List<String> entries = new ArrayList<>();
+            for (String name : current.timetables().get(kind).keySet()) {
+                String path = PREFIX + "/" + segment + "/" + URLEncoder.encode(name, StandardCharsets.UTF_8).replace("+", "%20");
+                entries.add("{\"name\": " + ConflictReport.json(name) + ", \"paths\": " + paths(path) + "}");
+            }
+            json.append(", \"").append(segment).append("\": [").append(String.join(", ", entries)).append("]");
+        }
+        return json.append("}\n").toString();
+    }
+
+    private static String paths(String path) {
+        return "{\"json\": " + ConflictReport.json(path + ".json") + ", \"pdf\": " + ConflictReport.json(path + ".pdf")
+               + ", \"xlsx\": " + ConflictReport.json(path + ".xlsx") + "}";
+    }
+
+    private static String json(String title, long version, ScheduleGrid grid) {
+        List<String> slots = new ArrayList<>();
+        for (int i = 0; i < grid.getTimeSlots().length; i++) {
+            for (int j = 0; j < grid.getDays().length; j++) {
+                for (ScheduleGrid.Entry entry : grid.getCell(i, j)) {
+                    slots.add(ConflictReport.json(entry.slot()));
+                }
+            }
+        }
+        return "{\"title\": " + ConflictReport.json(title) + ", \"version\": " + version
+               + ", \"slots\": [" + String.join(", ", slots) + "]}\n";
+    }
+
+    /**
+     * LRU map of rendered documents whose bodies add up to at most a given
+     * number of bytes. A document larger than the whole cache is not kept.
+     */
+
+    private static final class RenderCache {
+        private final long maxBytes;
+        private final LinkedHashMap<String, Document> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        RenderCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized Document get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+
+        synchronized void put(String key, Document document) {
+            if (document.body().length > maxBytes) {
+                return;
+            }
+            Document old = entries.put(key, document);
+            if (old != null) {
+                bytes -= old.body().length;
+            }
+            bytes += document.body().length;
+            Iterator<Map.Entry<String, Document>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().body().length;
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import controller.IncrementalLoader.Cell;
+import controller.SlotLoader.FileResult;
+
+/**
+ * Watches a directory of instructor files and feeds every created, changed or
+ * deleted file to an IncrementalLoader.
+ *
+ * Events are collected on a daemon thread until the directory has been quiet
+ * for a moment, since editors often write a file in several steps. The changed
+ * files are then parsed on the watcher thread, and the schedule is updated
+ * through the given applier (e.g. Platform::runLater), so the loader and the
+ * schedule are only ever touched from one thread.
+ */
+
+public class ScheduleWatcher implements AutoCloseable {
+
+    private static final long QUIET_MILLIS = 200;
+
+    private final Path directory;
+    private final IncrementalLoader loader;
+    private final Consumer<Runnable> applier;
+    private final Consumer<Set<Cell>> onUpdate;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Starts watching the directory. The directory should already be loaded
+     * with loader.load(directory).
+     *
+     * @param directory The directory of instructor files.
+     * @param loader    The loader that keeps the schedule up to date.
+     * @param applier   Runs the schedule updates, e.g. on the JavaFX application thread.
+     * @param onUpdate  Called by the applier with the cells that changed.
+     */
+
+    public ScheduleWatcher(Path directory, IncrementalLoader loader, Consumer<Runnable> applier,
+                           Consumer<Set<Cell>> onUpdate) throws IOException {
+        this.directory = directory;
+        this.loader = loader;
+        this.applier = applier;
+        this.onUpdate = onUpdate;
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                           StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+        thread = new Thread(this::watch, "instructor-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() {
+        try {
+            while (!closed) {
+                Set<Path> changed = new TreeSet<>();
+                boolean overflow = drain(watchService.take(), changed);
+
+                // Wait until no more events arrive, so a file is read once it is fully written
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= drain(key, changed);
+                }
+
+                if (overflow) {
+                    applier.accept(this::reload);
+                } else if (!changed.isEmpty()) {
+                    update(changed);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private boolean drain(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else if (event.context() instanceof Path name && name.toString().endsWith(".txt")) {
+                changed.add(directory.resolve(name));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    private void update(Set<Path> changed) {
+        List<Path> paths = new ArrayList<>(changed);
+        List<FileResult> results = new ArrayList<>();
+        for (Path path : paths) {
+            results.add(loader.prepare(path));
+        }
+
+        applier.accept(() -> {
+            if (closed) {
+                return;
+            }
+            Set<Cell> cells = new HashSet<>();
+            for (int i = 0; i < paths.size(); i++) {
+                cells.addAll(loader.apply(paths.get(i), results.get(i)));
+            }
+            onUpdate.accept(cells);
+        });
+    }
+
+    private void reload() {
+        if (closed) {
+            return;
+        }
+        try {
+            onUpdate.accept(loader.load(directory));
+        } catch (IOException e) {
+            System.err.println("There was an error during reading the directory " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Stops watching. Updates that were not applied yet are dropped.
+     */
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("There was an error during closing the watcher " + e.getLocalizedMessage());
+        }
+    }
+}
@@ -1,40 +1,40 @@
 package controller;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
-import java.awt.image.BufferedImage;
 
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-import com.itextpdf.io.exceptions.IOException;
-
-import javafx.beans.property.SimpleStringProperty;
-import javafx.embed.swing.SwingFXUtils;
+import javafx.application.Platform;
 import javafx.geometry.*;
 import javafx.scene.Parent;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.rendering.PDFRenderer;
-import org.apache.poi.ss.usermodel.Cell;
 
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
+import controller.IncrementalLoader.Cell;
+import model.ConflictReport;
 import model.Schedule;
+import model.ScheduleGrid;
+import model.ScheduleSnapshot;
+import model.ScheduleViews;
 import model.Slot;
+import solver.RepairAdvisor;
+import solver.RepairAdvisor.Repair;
+import solver.SolverResult;
+import solver.TimetableProblem;
+import solver.TimetableSolver;
+import util.Metrics;
+import util.ParseRequests;
 import view.ExcelScheduler;
 import view.PDFScheduler;
-import util.ParseTxt;
 
 /**
  * Scheduler is the main controller responsible for managing file input,
@@ -47,15 +47,30 @@ import util.ParseTxt;
  */
 
 public class Scheduler{
-    private static Scheduler scheduler = null;
+    private static final int SUGGESTIONS = 3;
     private Schedule schedule = null;
     private PDFScheduler pdfScheduler;
     private ExcelScheduler excelScheduler;
+    private PDFPreview pdfPreview;
+    private ExcelPreview excelPreview;
+    private SchedulePreview timetable;
+    private ConflictView conflictView;
+    private ConflictReport report = new ConflictReport();
+    private SlotCache cache;
+    private IncrementalLoader incrementalLoader;
+    private ScheduleWatcher watcher;
+    // Computes repair suggestions off the JavaFX thread; only the latest request is shown
+    private final ExecutorService advisor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "repair-advisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long reportRequest;
     private List<Path> paths;
     private String outputFormat = "PDF"; 
     private VBox root;
     Label fileLabel;
-    Button fileButton, formatButton, previewButton, exportButton;
+    Button fileButton, formatButton, previewButton, exportButton, batchButton, timetableButton, conflictsButton, watchButton, solveButton, metricsButton;
 
     /**
      * Private constructor to enforce singleton pattern.
@@ -67,15 +82,21 @@ public class Scheduler{
         buildUI();
     }
 
+    /**
+     * Holds the Scheduler; the JVM creates it on first access, which happens
+     * on the JavaFX application thread in Main.start.
+     */
+
+    private static class Holder {
+        private static final Scheduler INSTANCE = new Scheduler();
+    }
+
     /**
      * Returns the singleton instance of Scheduler.
      */
 
     public static Scheduler getScheduler(){
-        if(scheduler == null){
-            scheduler = new Scheduler();
-        }
-        return scheduler;
+        return Holder.INSTANCE;
     }
     
     /**
@@ -97,6 +118,12 @@ public class Scheduler{
         formatButton = new Button("Select Format");
         exportButton = new Button("Export Schedule");
         previewButton = new Button("Preview File");
+        batchButton = new Button("Export Timetables");
+        timetableButton = new Button("Show Timetable");
+        conflictsButton = new Button("Show Conflicts");
+        watchButton = new Button("Watch Instructors Folder");
+        solveButton = new Button("Run Solver");
+        metricsButton = new Button("Show Metrics");
 
         fileButton.setOnAction(e -> {
             if (this.selectFiles()) {clearPreview();}
@@ -114,9 +141,33 @@ public class Scheduler{
             this.previewFile();
         });
 
+        batchButton.setOnAction(e -> {
+            this.exportTimetables();
+        });
+
+        timetableButton.setOnAction(e -> {
+            this.toggleTimetable();
+        });
+
+        conflictsButton.setOnAction(e -> {
+            this.toggleConflicts();
+        });
+
+        watchButton.setOnAction(e -> {
+            this.toggleWatching();
+        });
+
+        solveButton.setOnAction(e -> {
+            this.runSolver();
+        });
+
+        metricsButton.setOnAction(e -> {
+            this.showMetrics();
+        });
+
         previewButton.setDisable(true);
 
-        root = new VBox(15, fileButton, fileLabel, formatButton, exportButton, previewButton);
+        root = new VBox(15, fileButton, fileLabel, formatButton, exportButton, batchButton, previewButton, timetableButton, conflictsButton, watchButton, solveButton, metricsButton);
         root.setPadding(new Insets(20));
         root.setAlignment(Pos.CENTER);
     }
@@ -129,7 +180,7 @@ public class Scheduler{
     private boolean selectFiles(){
         FileChooser chooser = new FileChooser();
         chooser.setTitle("Select TXT Files");
-        File initialDir = new File("resources\\instructors").getAbsoluteFile();         
+        File initialDir = new File("resources/instructors").getAbsoluteFile();         
         if (initialDir.exists() && initialDir.isDirectory()) {
             chooser.setInitialDirectory(initialDir);                 
         }
@@ -145,7 +196,8 @@ public class Scheduler{
                     
             this.fileLabel.setVisible(false);
             this.fileLabel.setManaged(false);
-            schedule.getSlots().clear();
+            stopWatching();
+            schedule.clear();
     
             this.handleSlots(paths);
             return true;
@@ -173,7 +225,8 @@ public class Scheduler{
     }
 
     /**
-     * Generates the schedule in the selected format (PDF or Excel).
+     * Generates the schedule in the selected format (PDF or Excel). A failed
+     * export is shown in an alert.
      * @return true if export is successful.
      */
 
@@ -184,65 +237,267 @@ public class Scheduler{
         }
         previewButton.setDisable(false);
 
-        if (schedule.getSlots().isEmpty()) {
-            handleSlots(paths);
+        List<Slot> slots = schedule.snapshot();
+        try {
+            switch(outputFormat){
+                case "PDF":
+                    pdfScheduler = new PDFScheduler();
+                    pdfScheduler.generateSchedule(schedule.getDays(), schedule.getTimeSlots(), slots);
+                    return true;
+                case "Excel":
+                    excelScheduler = new ExcelScheduler();
+                    excelScheduler.generateSchedule(schedule.getDays(), schedule.getTimeSlots(), slots);
+                    return true;
+                default:
+                    return false;
+
+            }
+        } catch (IOException e) {
+            showAlert("Error", "Could not export the schedule: " + e.getLocalizedMessage());
+            return false;
         }
+        
+    }
 
-        switch(outputFormat){
-            case "PDF":
-                pdfScheduler = new PDFScheduler();
-                pdfScheduler.generateSchedule(schedule.getDays(), schedule.getTimeSlots(), schedule.getSlots());
-                return true;
-            case "Excel":
-                excelScheduler = new ExcelScheduler();
-                excelScheduler.generateSchedule(schedule.getDays(), schedule.getTimeSlots(), schedule.getSlots());
-                return true;
-            default:
-                return false;
+    /**
+     * Writes the timetable of every instructor, room and course in the selected
+     * format, one sheet or page per timetable.
+     * @return true if export is successful.
+     */
 
+    private boolean exportTimetables(){
+        if (this.paths == null) {
+            showAlert("No file selected", "Please choose a .txt file first.");
+            return false;
+        }
+
+        ScheduleViews views = new ScheduleViews(schedule.getDays(), schedule.getTimeSlots(), schedule.snapshot());
+        try {
+            switch(outputFormat){
+                case "PDF":
+                    new PDFScheduler().generateBatch(views);
+                    return true;
+                case "Excel":
+                    new ExcelScheduler(true).generateBatch(views);
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (IOException e) {
+            showAlert("Error", "Could not export the timetables: " + e.getLocalizedMessage());
+            return false;
         }
-        
     }
 
     /**
      * Reads slot data from input files, validates them, and checks for conflicts.
      * Only conflict-free and valid slots are added to the schedule.
+     * Files are parsed concurrently by SlotLoader and merged in the given order;
+     * files that did not change since they were last loaded come from the SlotCache.
+     * Rejected lines and slots are collected in a report shown under "Show Conflicts".
      */
     
     public void handleSlots(List<Path> files){
-        List<Slot> slots = schedule.getSlots();
-        
-        for(Path dir: files){
-            List<Slot> extractedSlots =  ParseTxt.parse(dir.toString());
-            List<Slot> validSlots = new ArrayList<Slot>();
-            for(int i = 0; i < extractedSlots.size(); i++){
-                Slot slot = extractedSlots.get(i);
-                if (ValidationStrategy.checkSlot(slot)) {
-                    boolean conflict = false;
-
-                    for (int j = i + 1; j < extractedSlots.size(); j++) {
-                        if (!CompareStrategy.compareSlots(slot, extractedSlots.get(j))) {
-                            conflict = true;
-                            break;
-                        }
-                    }
+        if (cache == null) {
+            cache = new SlotCache(SlotCache.DEFAULT_FILE);
+        }
+        report = SlotLoader.load(files, schedule, cache);
+        refreshTimetable();
+        showReport();
+    }
 
-                    if (!conflict) {
-                        for (Slot otherSlot : slots) {
-                            if (!CompareStrategy.compareSlots(slot, otherSlot)) {
-                                conflict = true;
-                                break;
-                            }
-                        }
-                    }
+    /**
+     * Starts or stops incremental mode. While it is on, the schedule is loaded
+     * from resources/instructors and every file that is saved, added or deleted
+     * there is applied on its own, without re-reading the other files.
+     */
 
-                    if (!conflict) {
-                        validSlots.add(slot);
-                    }
-                }
+    private void toggleWatching(){
+        if (watcher != null) {
+            stopWatching();
+            return;
+        }
 
+        Path directory = Paths.get("resources", "instructors");
+        try {
+            incrementalLoader = new IncrementalLoader(schedule);
+            incrementalLoader.load(directory);
+            watcher = new ScheduleWatcher(directory, incrementalLoader, Platform::runLater, this::applyChanges);
+        } catch (IOException e) {
+            incrementalLoader = null;
+            showAlert("Error", "Could not watch " + directory + ": " + e.getLocalizedMessage());
+            return;
+        }
+        paths = incrementalLoader.getFiles();
+        fileLabel.setVisible(false);
+        fileLabel.setManaged(false);
+        report = incrementalLoader.report();
+        refreshTimetable();
+        showReport();
+        watchButton.setText("Stop Watching");
+    }
+
+    private void stopWatching(){
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+            incrementalLoader = null;
+            watchButton.setText("Watch Instructors Folder");
+        }
+    }
+
+    /**
+     * Called on the JavaFX application thread after the watcher applied a
+     * change. Only the timetable cells the change touched are redrawn, from
+     * a grid of just the slots in those cells.
+     */
+
+    private void applyChanges(Set<Cell> cells){
+        paths = incrementalLoader.getFiles();
+        report = incrementalLoader.report();
+        showReport();
+
+        if (timetable != null) {
+            ScheduleGrid grid = new ScheduleGrid(schedule.getDays(), schedule.getTimeSlots(), incrementalLoader.acceptedIn(cells));
+            for (Cell cell : cells) {
+                int time = grid.indexOfTime(cell.time());
+                int day = grid.indexOfDay(cell.day());
+                if (time >= 0 && day >= 0) {
+                    timetable.updateCell(grid, time, day);
+                }
             }
-            slots.addAll(validSlots);
+        }
+    }
+
+    /**
+     * Places the slots that have a blank room, plus the course hours listed in
+     * resources/requests.txt (courseCode;instructor;hours[;rooms]), using the
+     * instructor unavailability in resources/unavailable.txt (instructor;day;time).
+     * The search runs in the background with a time budget of 10 seconds.
+     * Loading and watching are disabled meanwhile, and the result is dropped
+     * if the schedule changed anyway, since it was computed for the old slots.
+     */
+
+    private void runSolver(){
+        if (this.paths == null) {
+            showAlert("No file selected", "Please choose a .txt file first.");
+            return;
+        }
+        stopWatching();
+
+        TimetableProblem problem = TimetableProblem.fromSchedule(schedule);
+        Path requests = Paths.get("resources", "requests.txt");
+        Path unavailable = Paths.get("resources", "unavailable.txt");
+        if (Files.exists(requests)) {
+            ParseRequests.parse(requests).forEach(problem::addRequest);
+        }
+        if (Files.exists(unavailable)) {
+            ParseRequests.parseUnavailable(unavailable, problem);
+        }
+        if (problem.getRequests().isEmpty()) {
+            showAlert("Solver", "There are no slots without a room and no requests in " + requests + ".");
+            return;
+        }
+
+        long version = schedule.getVersion();
+        setSolving(true);
+        Thread thread = new Thread(() -> {
+            SolverResult result = new TimetableSolver().solve(problem, Duration.ofSeconds(10));
+            Platform.runLater(() -> {
+                setSolving(false);
+                if (schedule.getVersion() != version) {
+                    showAlert("Solver", "The schedule changed while the solver was running, so its result was discarded.");
+                    return;
+                }
+                result.applyTo(schedule);
+                refreshTimetable();
+                showReport();
+                showAlert("Solver", result.summary());
+            });
+        }, "timetable-solver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void setSolving(boolean solving){
+        solveButton.setDisable(solving);
+        solveButton.setText(solving ? "Solving..." : "Run Solver");
+        fileButton.setDisable(solving);
+        watchButton.setDisable(solving);
+    }
+
+    /**
+     * Shows or hides the table of lines and slots rejected by the last load.
+     */
+
+    private void toggleConflicts(){
+        if (conflictView == null) {
+            conflictView = new ConflictView(message -> showAlert("Error", message));
+            root.getChildren().add(conflictView.getNode());
+        } else {
+            root.getChildren().remove(conflictView.getNode());
+            conflictView = null;
+        }
+        showReport();
+    }
+
+    /**
+     * Shows the current report in the conflict table, if it is open, together
+     * with up to three free cells each conflicting slot could be moved to.
+     * The entries are shown at once. The suggestions are computed on a
+     * background thread from a snapshot of the schedule, and are filled in
+     * when they are ready unless a newer report was shown meanwhile. Nothing
+     * is computed while the table is closed.
+     */
+
+    private void showReport(){
+        if (conflictView != null) {
+            ConflictReport shown = report;
+            ScheduleSnapshot snapshot = schedule.view();
+            long request = ++reportRequest;
+            conflictView.update(shown);
+            advisor.execute(() -> {
+                List<Repair> repairs = new RepairAdvisor(snapshot, SUGGESTIONS).suggest(shown);
+                Platform.runLater(() -> {
+                    if (conflictView != null && request == reportRequest) {
+                        conflictView.update(shown, repairs);
+                    }
+                });
+            });
+        }
+        updateConflictsButton();
+    }
+
+    private void updateConflictsButton(){
+        String count = report.isEmpty() ? "" : " (" + report.size() + ")";
+        conflictsButton.setText((conflictView == null ? "Show" : "Hide") + " Conflicts" + count);
+    }
+
+    /**
+     * Shows or hides the live timetable, which is drawn straight from the
+     * schedule's slots without exporting a file first.
+     */
+
+    private void toggleTimetable(){
+        if (timetable == null) {
+            timetable = new SchedulePreview();
+            refreshTimetable();
+            root.getChildren().add(timetable.getNode());
+            timetableButton.setText("Hide Timetable");
+        } else {
+            root.getChildren().remove(timetable.getNode());
+            timetable = null;
+            timetableButton.setText("Show Timetable");
+        }
+    }
+
+    /**
+     * Redraws the live timetable from the current schedule, if it is shown.
+     */
+
+    private void refreshTimetable(){
+        if (timetable != null) {
+            timetable.update(new ScheduleGrid(schedule.getDays(), schedule.getTimeSlots(), schedule.snapshot()));
         }
     }
 
@@ -264,19 +519,7 @@ public class Scheduler{
             case "Excel":
                 previewFile = new File("resources/output/schedule.xlsx");
                 if (previewFile.exists()) {
-                    try {
-                        TableView<String[]> tableView;
-                        try {
-                            tableView = generateExcelPreview(previewFile);
-                            root.getChildren().add(tableView);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-    
-                    } 
-                    catch (IOException e) {
-                        showAlert("Error", "Failed to load Excel preview.");
-                    }
+                    generateExcelPreview(previewFile);
                 }
                 else {
                     showAlert("File not found", "Excel file does not exist yet.");
@@ -291,115 +534,75 @@ public class Scheduler{
      */
 
     private void clearPreview() {
-        root.getChildren().removeIf(node -> node instanceof ScrollPane || node instanceof TableView);
+        if (pdfPreview != null) {
+            pdfPreview.close();
+            pdfPreview = null;
+        }
+        if (excelPreview != null) {
+            excelPreview.close();
+            excelPreview = null;
+        }
+        root.getChildren().removeIf(node -> node instanceof ScrollPane || node instanceof TabPane);
     }
 
     /**
-     * Renders a PDF file as a series of images in a scrollable pane.
+     * Shows a PDF file as a series of page images in a scrollable pane.
+     * Pages are rendered in the background as they scroll into view.
      */
 
     private void generatePDFPreview(File previewFile) {
-        try {
-            root.getChildren().removeIf(node -> node instanceof ScrollPane);
-            root.getChildren().removeIf(node -> node instanceof TableView);
-            
-            FileInputStream fis = new FileInputStream(previewFile);
-            PDDocument document = PDDocument.load(fis);
-            PDFRenderer renderer = new PDFRenderer(document);
-
-            VBox pdfPageContainer = new VBox(10);
-            pdfPageContainer.setAlignment(Pos.CENTER);
-
-            for (int i = 0; i < document.getNumberOfPages(); i++) {
-                BufferedImage bim = renderer.renderImageWithDPI(i, 150);
-                Image fxImage = SwingFXUtils.toFXImage(bim, null);
-                ImageView imageView = new ImageView(fxImage);
-                imageView.setPreserveRatio(true);
-                imageView.setFitWidth(600); // adjust as needed
-                pdfPageContainer.getChildren().add(imageView);
-            }
-
-            ScrollPane scrollPane = new ScrollPane(pdfPageContainer);
-            scrollPane.setPrefViewportHeight(500);
-            scrollPane.setFitToWidth(true);
-
-            root.getChildren().add(scrollPane);
-
-            document.close();
-            fis.close();
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert("Error", "Failed to preview PDF.");
-        }
+        clearPreview();
+        pdfPreview = new PDFPreview(previewFile, message -> showAlert("Error", message));
+        root.getChildren().add(pdfPreview.getNode());
     }
 
     /**
-     * Renders an Excel file in a table view.
+     * Shows an Excel file with one table per sheet. Sheets are read in the
+     * background and rows are loaded as the table scrolls.
      */
 
-    private TableView<String[]> generateExcelPreview(File file) {
-        try{
-            root.getChildren().removeIf(node -> node instanceof ScrollPane);
-            root.getChildren().removeIf(node -> node instanceof TableView);
+    private void generateExcelPreview(File previewFile) {
+        clearPreview();
+        excelPreview = new ExcelPreview(previewFile, message -> showAlert("Error", message));
+        root.getChildren().add(excelPreview.getNode());
+    }
 
-            TableView<String[]> tableView = new TableView<>();
-            FileInputStream fis = new FileInputStream(file);
-            Workbook workbook = new XSSFWorkbook(fis);
-            Sheet sheet = workbook.getSheetAt(0);
+    /**
+     * Shows the counters and timings collected so far (files parsed, accepted
+     * and rejected slots, conflict check, grid and export times). They can be
+     * saved as Prometheus text or JSON.
+     */
 
-            int maxColumns = 0;
-            for (Row row : sheet) {
-                if (row.getLastCellNum() > maxColumns) {
-                    maxColumns = row.getLastCellNum();
-                }
-            }
+    private void showMetrics(){
+        TextArea text = new TextArea(Metrics.text());
+        text.setEditable(false);
+        text.setStyle("-fx-font-family: monospace;");
+        text.setPrefSize(600, 400);
 
-            for (int i = 0; i < maxColumns; i++) {
-                final int colIndex = i;
-                TableColumn<String[], String> column = new TableColumn<>("Column " + (i + 1));
-                column.setCellValueFactory(cellData -> {
-                    String[] row = cellData.getValue();
-                    return new SimpleStringProperty(colIndex < row.length ? row[colIndex] : "");
-                });
-                tableView.getColumns().add(column);
-            }
+        ButtonType save = new ButtonType("Save", ButtonBar.ButtonData.LEFT);
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, null, save, ButtonType.OK);
+        alert.setTitle("Metrics");
+        alert.setHeaderText(null);
+        alert.getDialogPane().setContent(text);
+        if (alert.showAndWait().orElse(ButtonType.OK) != save) {
+            return;
+        }
 
-            for (Row row : sheet) {
-                String[] rowData = new String[maxColumns];
-                for (int i = 0; i < maxColumns; i++) {
-                    Cell cell = row.getCell(i);
-                    rowData[i] = (cell != null) ? getCellValueAsString(cell) : "";
-                }
-                tableView.getItems().add(rowData);
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Metrics");
+        chooser.setInitialFileName("metrics.prom");
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("Prometheus Text", "*.prom", "*.txt"),
+            new FileChooser.ExtensionFilter("JSON Files", "*.json")
+        );
+        File file = chooser.showSaveDialog(null);
+        if (file != null) {
+            try {
+                Metrics.write(file.toPath());
+            } catch (IOException e) {
+                showAlert("Error", "Could not save the metrics: " + e.getLocalizedMessage());
             }
-
-            workbook.close();
-            fis.close();
-
-            tableView.setPrefHeight(400); 
-            return tableView;
-        }
-        catch(Exception e){
-            e.printStackTrace();
         }
-        return null;
-
-    }
-
-    /**
-     * Utility method to convert a cell value to string for display.
-     */
-
-    private String getCellValueAsString(Cell cell) {
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> DateUtil.isCellDateFormatted(cell) ?
-                    cell.getDateCellValue().toString() :
-                    Double.toString(cell.getNumericCellValue());
-            case BOOLEAN -> Boolean.toString(cell.getBooleanCellValue());
-            case FORMULA -> cell.getCellFormula();
-            default -> "";
-        };
     }
 
     /**
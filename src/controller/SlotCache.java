@@ -0,0 +1,393 @@
+package controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import controller.SlotLoader.FileResult;
+import model.ConflictReport;
+import model.ConflictReport.Entry;
+import model.ConflictReport.Reason;
+import model.Slot;
+import model.TermCalendar;
+
+/**
+ * On-disk cache of the per-file stage of SlotLoader.
+ *
+ * For every instructor file the cache keeps its size, modification time and
+ * SHA-256 hash together with the slots that passed parsing, validation and
+ * the conflict check within the file, and the lines and slots it rejected.
+ * A file whose size and modification time are unchanged is served without
+ * reading it, so a warm start only stats the files. Only if the time
+ * differs is the file hashed: with the same size and hash it is still
+ * served from the cache (e.g. after a checkout that touched it), and only
+ * a changed file pays for a parse. The merge across files always runs,
+ * since it is cheap and depends on which files are loaded together.
+ *
+ * A file that has to be parsed is hashed before it is parsed, and its size
+ * and modification time are checked again afterwards. If the file was edited
+ * in between, the result is not cached, so slots of the old content are
+ * never stored under the new fingerprint.
+ *
+ * The cache is written as one binary snapshot with a string table, so it can
+ * be read back without parsing text. Snapshots of another format version or
+ * calendar are ignored.
+ */
+
+public class SlotCache {
+
+    public static final Path DEFAULT_FILE = Paths.get("resources", "cache", "slots.bin");
+
+    private static final int MAGIC = 0x534C4F54;
+    private static final int VERSION = 2;
+
+    /**
+     * Fingerprint of one input file. The hash is null until it is needed.
+     */
+
+    record Fingerprint(long size, long modified, byte[] hash) {
+
+        boolean sameStat(Fingerprint other) {
+            return size == other.size && modified == other.modified;
+        }
+    }
+
+    private record Cached(Fingerprint fingerprint, FileResult result) {}
+
+    private final Path file;
+    private final String calendarKey;
+    private final Map<String, Cached> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private volatile boolean dirty;
+
+    /**
+     * Opens the cache stored in the given file. A missing, unreadable or
+     * outdated snapshot gives an empty cache.
+     */
+
+    public SlotCache(Path file) {
+        this.file = file;
+        this.calendarKey = calendarKey(TermCalendar.active());
+        if (Files.exists(file)) {
+            try {
+                read();
+            } catch (IOException | RuntimeException e) {
+                entries.clear();
+                System.err.println("Ignoring slot cache " + file + ": " + e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the result of a file from the cache, or reads it with the given
+     * reader and stores the result.
+     *
+     * @param path   The input file.
+     * @param reader Parses and checks the file; called on a miss only.
+     * @return the result of the file's current content.
+     */
+
+    FileResult get(Path path, Supplier<FileResult> reader) {
+        String key = keyOf(path);
+        Fingerprint before = stat(path);
+        Cached cached = entries.get(key);
+        if (before != null && cached != null && cached.fingerprint().size() == before.size()) {
+            if (cached.fingerprint().sameStat(before)) {
+                hits.incrementAndGet();
+                return cached.result();
+            }
+            before = hashed(path, before);
+            if (before != null && Arrays.equals(before.hash(), cached.fingerprint().hash())) {
+                entries.put(key, new Cached(before, cached.result()));
+                dirty = true;
+                hits.incrementAndGet();
+                return cached.result();
+            }
+        }
+        if (before != null && before.hash() == null) {
+            before = hashed(path, before);
+        }
+
+        misses.incrementAndGet();
+        FileResult result = reader.get();
+        Fingerprint after = stat(path);
+        if (before != null && after != null && after.sameStat(before)) {
+            entries.put(key, new Cached(before, result));
+            dirty = true;
+        }
+        return result;
+    }
+
+    /**
+     * Reads the size and modification time of a file.
+     *
+     * @return the fingerprint without a hash, or null if the file can't be read.
+     */
+
+    static Fingerprint stat(Path path) {
+        try {
+            return new Fingerprint(Files.size(path), Files.getLastModifiedTime(path).toMillis(), null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Fingerprint hashed(Path path, Fingerprint fingerprint) {
+        try {
+            return new Fingerprint(fingerprint.size(), fingerprint.modified(), hash(path));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns how many files were served from the cache since it was opened.
+     */
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many files had to be read since the cache was opened.
+     */
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Writes the snapshot if anything changed. Entries of files that no longer
+     * exist are dropped. The snapshot is written to a temporary file first and
+     * then moved over the old one. Loads running in parallel may share a
+     * cache: saves are serialized and each one writes an immutable copy of the
+     * entries, so entries stored in the meantime don't change the snapshot
+     * being written. They mark the cache dirty again and go into the next save.
+     */
+
+    public synchronized void save() {
+        if (entries.keySet().removeIf(path -> !Files.exists(Paths.get(path)))) {
+            dirty = true;
+        }
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        Map<String, Cached> snapshot = Map.copyOf(entries);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "slots", ".tmp");
+            try {
+                write(temp, snapshot);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            dirty = true;
+            System.err.println("There was an error during writing the slot cache " + e.getLocalizedMessage());
+        }
+    }
+
+    private void write(Path target, Map<String, Cached> snapshot) throws IOException {
+        // Collect every string once, so slots are written as table indexes
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        for (Cached cached : snapshot.values()) {
+            for (Slot slot : cached.result().candidates()) {
+                collect(slot, strings, table);
+            }
+            for (Entry entry : cached.result().report().getEntries()) {
+                collect(entry.source(), strings, table);
+                collect(entry.detail(), strings, table);
+                collect(entry.slot(), strings, table);
+                collect(entry.other(), strings, table);
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(calendarKey);
+
+            out.writeInt(table.size());
+            for (String value : table) {
+                out.writeUTF(value);
+            }
+
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Cached> entry : snapshot.entrySet()) {
+                Cached cached = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(cached.fingerprint().size());
+                out.writeLong(cached.fingerprint().modified());
+                out.write(cached.fingerprint().hash());
+
+                List<Slot> candidates = cached.result().candidates();
+                out.writeInt(candidates.size());
+                for (Slot slot : candidates) {
+                    writeSlot(out, slot, strings);
+                }
+
+                List<Entry> rejected = cached.result().report().getEntries();
+                out.writeInt(rejected.size());
+                for (Entry rejection : rejected) {
+                    out.writeByte(rejection.reason().ordinal());
+                    out.writeInt(idOf(rejection.source(), strings));
+                    out.writeInt(rejection.line());
+                    out.writeInt(idOf(rejection.detail(), strings));
+                    writeSlot(out, rejection.slot(), strings);
+                    writeSlot(out, rejection.other(), strings);
+                }
+            }
+        }
+    }
+
+    private void read() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(calendarKey)) {
+                return;
+            }
+
+            String[] table = new String[in.readInt()];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = in.readUTF();
+            }
+
+            Reason[] reasons = Reason.values();
+            int files = in.readInt();
+            for (int f = 0; f < files; f++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                byte[] hash = new byte[32];
+                in.readFully(hash);
+
+                List<Slot> candidates = new ArrayList<>();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    candidates.add(readSlot(in, table));
+                }
+
+                ConflictReport report = new ConflictReport();
+                count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Reason reason = reasons[in.readByte()];
+                    String source = stringOf(in.readInt(), table);
+                    int line = in.readInt();
+                    String detail = stringOf(in.readInt(), table);
+                    report.add(new Entry(reason, source, line, readSlot(in, table), readSlot(in, table), detail));
+                }
+                entries.put(path, new Cached(new Fingerprint(size, modified, hash), new FileResult(candidates, report)));
+            }
+        }
+    }
+
+    private static void writeSlot(DataOutputStream out, Slot slot, Map<String, Integer> strings) throws IOException {
+        if (slot == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        out.writeInt(idOf(slot.getDay(), strings));
+        out.writeInt(idOf(slot.getTime(), strings));
+        out.writeInt(idOf(slot.getCourseCode(), strings));
+        out.writeInt(idOf(slot.getRoom(), strings));
+        out.writeInt(idOf(slot.getInstructor(), strings));
+        out.writeInt(idOf(slot.getSource(), strings));
+        out.writeInt(slot.getLine());
+    }
+
+    private static Slot readSlot(DataInputStream in, String[] table) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new Slot(stringOf(in.readInt(), table), stringOf(in.readInt(), table), stringOf(in.readInt(), table),
+                        stringOf(in.readInt(), table), stringOf(in.readInt(), table), stringOf(in.readInt(), table),
+                        in.readInt());
+    }
+
+    private static void collect(Slot slot, Map<String, Integer> strings, List<String> table) {
+        if (slot != null) {
+            collect(slot.getDay(), strings, table);
+            collect(slot.getTime(), strings, table);
+            collect(slot.getCourseCode(), strings, table);
+            collect(slot.getRoom(), strings, table);
+            collect(slot.getInstructor(), strings, table);
+            collect(slot.getSource(), strings, table);
+        }
+    }
+
+    private static void collect(String value, Map<String, Integer> strings, List<String> table) {
+        if (value != null && !strings.containsKey(value)) {
+            strings.put(value, table.size());
+            table.add(value);
+        }
+    }
+
+    // -1 stands for null
+    private static int idOf(String value, Map<String, Integer> strings) {
+        return value == null ? -1 : strings.get(value);
+    }
+
+    private static String stringOf(int id, String[] table) {
+        return id < 0 ? null : table[id];
+    }
+
+    private static String keyOf(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    private static byte[] hash(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Returns true if the cached results were validated against the given calendar.
+     */
+
+    boolean covers(TermCalendar calendar) {
+        return calendarKey.equals(calendarKey(calendar));
+    }
+
+    /**
+     * Validation depends on the calendar, so results of another calendar can't be reused.
+     */
+
+    private static String calendarKey(TermCalendar calendar) {
+        return calendar.getName() + "|" + String.join(",", calendar.getDays()) + "|"
+               + String.join(",", calendar.getPeriods());
+    }
+}
@@ -0,0 +1,197 @@
+package controller;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ConflictReport;
+import model.ConflictReport.Reason;
+import model.Schedule;
+import model.Slot;
+import model.SlotDictionary;
+import model.TermCalendar;
+import util.Metrics;
+import util.ParseTxt;
+
+/**
+ * Loads instructor TXT files into a schedule.
+ *
+ * Parsing, validation and the conflict check against later slots of the same
+ * file only depend on that file, so they run for all files at once on a worker
+ * pool. The results are then merged one file after another in the given order,
+ * which keeps the rule that slots of earlier files win a conflict.
+ *
+ * Rejected lines and slots are not printed; every file collects them in its
+ * own ConflictReport and the reports are joined in file order. The time of
+ * each stage and the accepted and rejected slots per reason are recorded in
+ * Metrics.
+ */
+
+public class SlotLoader {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Candidate slots of one file and the lines and slots it rejected.
+     */
+
+    record FileResult(List<Slot> candidates, ConflictReport report) {}
+
+    /**
+     * Parses and validates the given files and adds the slots that are valid
+     * and conflict-free to the schedule.
+     *
+     * @param files     Paths of the instructor .txt files, in priority order.
+     * @param schedule  Schedule the accepted slots are added to.
+     * @return the report of every rejected line and slot, in file order.
+     */
+
+    public static ConflictReport load(List<Path> files, Schedule schedule) {
+        return load(files, schedule, null);
+    }
+
+    /**
+     * Like load(files, schedule), but files that are unchanged since they were
+     * last read are taken from the cache instead of being parsed again. The
+     * cache is saved afterwards.
+     *
+     * @param files     Paths of the instructor .txt files, in priority order.
+     * @param schedule  Schedule the accepted slots are added to.
+     * @param cache     Cache of per-file results, or null to read every file. It is
+     *                  not used if the schedule has a different calendar than the cache.
+     * @return the report of every rejected line and slot, in file order.
+     */
+
+    public static ConflictReport load(List<Path> files, Schedule schedule, SlotCache cache) {
+        long start = System.nanoTime();
+        TermCalendar calendar = schedule.getCalendar();
+        // Cached results were validated against the cache's calendar
+        SlotCache usableCache = cache != null && cache.covers(calendar) ? cache : null;
+        // One pool per load, so the files share their strings without keeping them after the load
+        List<FileResult> results = readAll(files, usableCache, calendar, new SlotDictionary());
+        if (usableCache != null) {
+            usableCache.save();
+        }
+
+        long mergeStart = System.nanoTime();
+        ConflictIndex index = new ConflictIndex(calendar);
+        schedule.getSlots().forEach(index::add);
+
+        ConflictReport report = new ConflictReport();
+        int accepted = 0;
+        for (FileResult result : results) {
+            report.addAll(result.report());
+            List<Slot> validSlots = new ArrayList<>();
+            for (Slot slot : result.candidates()) {
+                if (index.isAvailable(slot, report)) {
+                    validSlots.add(slot);
+                }
+            }
+            validSlots.forEach(index::add);
+            schedule.addSlots(validSlots);
+            accepted += validSlots.size();
+        }
+        Metrics.histogram("conflict_check_seconds", "stage", "merge").recordSince(mergeStart);
+
+        Metrics.counter("slots_accepted_total").add(accepted);
+        for (Reason reason : Reason.values()) {
+            Metrics.counter("slots_rejected_total", "reason", reason.name().toLowerCase(Locale.ROOT)).add(report.count(reason));
+        }
+        Metrics.histogram("load_seconds").recordSince(start);
+        return report;
+    }
+
+    /**
+     * Runs the per-file stage for every file on the worker pool.
+     *
+     * @return the result of each file, in the same order as the files.
+     */
+
+    static List<FileResult> readAll(List<Path> files, SlotCache cache, TermCalendar calendar, SlotDictionary pool) {
+        if (files.size() <= 1) {
+            return files.stream().map(file -> readFile(file, cache, calendar, pool)).toList();
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(THREADS, files.size()))) {
+            List<Future<FileResult>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(executor.submit(() -> readFile(file, cache, calendar, pool)));
+            }
+
+            List<FileResult> results = new ArrayList<>();
+            for (Future<FileResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Loading instructor files was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the cached result of a file if it is unchanged, otherwise reads
+     * the file and stores the result in the cache.
+     */
+
+    static FileResult readFile(Path file, SlotCache cache, TermCalendar calendar, SlotDictionary pool) {
+        return cache == null ? readFile(file, calendar, pool) : cache.get(file, () -> readFile(file, calendar, pool));
+    }
+
+    /**
+     * Parses a single file and keeps the slots that are valid and do not
+     * conflict with a later slot of the same file. Days and times are
+     * validated against the given calendar, and valid days are stored in the
+     * calendar's spelling.
+     */
+
+    static FileResult readFile(Path file, TermCalendar calendar) {
+        return readFile(file, calendar, null);
+    }
+
+    /**
+     * Like readFile(file, calendar), but the parsed strings are interned
+     * through the given pool.
+     */
+
+    static FileResult readFile(Path file, TermCalendar calendar, SlotDictionary pool) {
+        ConflictReport report = new ConflictReport();
+        List<Slot> extractedSlots = ParseTxt.parse(file.toString(), report, pool);
+        if (extractedSlots == null) {
+            return new FileResult(List.of(), report);
+        }
+
+        // Days are normalized first, so "monday" and "Monday" are the same day in every later check
+        extractedSlots.forEach(slot -> ValidationStrategy.normalizeDay(slot, calendar));
+
+        // A slot loses to a later slot of the same file, so the file is indexed from its end and
+        // each slot is checked against the slots after it; the first match is their last occurrence
+        long start = System.nanoTime();
+        ConflictIndex fileIndex = new ConflictIndex(calendar);
+        Slot[] later = new Slot[extractedSlots.size()];
+        for (int i = extractedSlots.size() - 1; i >= 0; i--) {
+            later[i] = fileIndex.findConflict(extractedSlots.get(i));
+            fileIndex.add(extractedSlots.get(i));
+        }
+
+        List<Slot> candidates = new ArrayList<>();
+        for (int i = 0; i < extractedSlots.size(); i++) {
+            Slot slot = extractedSlots.get(i);
+            if (ValidationStrategy.checkSlot(slot, report, calendar) && ConflictIndex.isAvailable(slot, later[i], report)) {
+                candidates.add(slot);
+            }
+        }
+        Metrics.histogram("conflict_check_seconds", "stage", "file").recordSince(start);
+        return new FileResult(candidates, report);
+    }
+}
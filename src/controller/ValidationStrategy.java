@@ -1,39 +1,78 @@
 package controller;
+import model.ConflictReport;
+import model.ConflictReport.Reason;
 import model.Slot;
+import model.TermCalendar;
 
 /**
  * Strategy class for validating the format and values of a Slot's day and time.
- * Ensures that both fields conform to allowed constants.
+ * Ensures that both fields are part of the active TermCalendar.
  */
 
 public class ValidationStrategy{
     /**
      * Checks whether a given slot has a valid day and time.
-     * Valid days are Monday through Sunday, and valid times match predefined slots.
+     * Valid days are the calendar's days (ignoring case), and valid times are the
+     * start times of its periods. Both are hash lookups in precomputed tables.
      *
      * @param slot The slot to validate.
      * @return true if both day and time are valid; false otherwise.
      */
     protected static boolean checkSlot(Slot slot){
-        String day = slot.getDay().toLowerCase();
-        
-        boolean validDay = day.equals("monday") || day.equals("tuesday") || day.equals("wednesday") || 
-                           day.equals("thursday") || day.equals("friday") || day.equals("saturday") || 
-                           day.equals("sunday");
+        return checkSlot(slot, null);
+    }
+
+    /**
+     * Checks whether a given slot has a valid day and time and records an
+     * invalid day or time in the report.
+     *
+     * @param slot The slot to validate.
+     * @param report The report invalid slots are added to, or null.
+     * @return true if both day and time are valid; false otherwise.
+     */
+    protected static boolean checkSlot(Slot slot, ConflictReport report){
+        return checkSlot(slot, report, TermCalendar.active());
+    }
+
+    /**
+     * Checks a slot against the days and periods of the given calendar, e.g.
+     * the calendar of a schedule of another term.
+     *
+     * @param slot The slot to validate.
+     * @param report The report invalid slots are added to, or null.
+     * @param calendar The calendar the day and time must belong to.
+     * @return true if both day and time are valid; false otherwise.
+     */
+    protected static boolean checkSlot(Slot slot, ConflictReport report, TermCalendar calendar){
+        boolean validDay = calendar.dayOf(slot.getDay()) >= 0;
         
-        boolean validTime = slot.getTime().equals("08:45") || slot.getTime().equals("09:45") 
-                            || slot.getTime().equals("10:45") || slot.getTime().equals("11:45") 
-                            || slot.getTime().equals("13:30") || slot.getTime().equals("14:30") 
-                            || slot.getTime().equals("15:30") || slot.getTime().equals("16:30");
+        boolean validTime = calendar.periodOf(slot.getTime()) >= 0;
 
-        if(!validDay){
-            System.err.println(slot.getDay() + " is not valid for " + slot.toString() + "!");
+        if(report != null && !validDay){
+            report.invalid(Reason.INVALID_DAY, slot);
         }
 
-        if(!validTime){
-            System.err.println(slot.getTime() + " is not valid for " + slot.toString() + "!");
+        if(report != null && !validTime){
+            report.invalid(Reason.INVALID_TIME, slot);
         }
 
         return validDay && validTime;
     }
+
+    /**
+     * Replaces a valid day with the calendar's spelling of it, e.g. "monday"
+     * with "Monday". The calendar accepts days in any case, but the conflict
+     * checks, the slot store and the incremental loader compare days as plain
+     * strings, so every slot must carry the same spelling. Invalid days are
+     * left as they are, so they can still be reported.
+     *
+     * @param slot The slot to normalize.
+     * @param calendar The calendar the day belongs to.
+     */
+    protected static void normalizeDay(Slot slot, TermCalendar calendar){
+        int day = calendar.dayOf(slot.getDay());
+        if(day >= 0){
+            slot.setDay(calendar.getDay(day));
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package model;
+
+/**
+ * Immutable, compact form of a Slot.
+ *
+ * The day and the period are stored as small ordinals (the indexes of the day
+ * and of the period in a TermCalendar), and the
+ * course, room and instructor as IDs from a SlotDictionary. Two compact slots
+ * are equal when all five values are equal, and conflict checks between them
+ * are plain integer comparisons.
+ *
+ * It is the form SlotStore and the conflict checks work on; it doesn't replace
+ * Slot, which still holds the schedule's data (see Schedule).
+ */
+
+public record CompactSlot(byte day, byte period, int course, int room, int instructor) {
+
+    /**
+     * Converts a slot into its compact form using the active calendar.
+     *
+     * @param slot       The slot to convert.
+     * @param dictionary Dictionary that assigns the course, room and instructor IDs.
+     * @return the compact slot, or null if the slot's day or time is not valid.
+     */
+
+    public static CompactSlot of(Slot slot, SlotDictionary dictionary) {
+        return of(slot, dictionary, TermCalendar.active());
+    }
+
+    /**
+     * Converts a slot into its compact form.
+     *
+     * @param slot       The slot to convert.
+     * @param dictionary Dictionary that assigns the course, room and instructor IDs.
+     * @param calendar   Calendar that assigns the day and period ordinals.
+     * @return the compact slot, or null if the slot's day or time is not valid.
+     */
+
+    public static CompactSlot of(Slot slot, SlotDictionary dictionary, TermCalendar calendar) {
+        int day = calendar.dayOf(slot.getDay());
+        int period = calendar.periodOf(slot.getTime());
+        if (day < 0 || period < 0) {
+            return null;
+        }
+        return new CompactSlot((byte) day, (byte) period, dictionary.idOf(slot.getCourseCode()),
+                               dictionary.idOf(slot.getRoom()), dictionary.idOf(slot.getInstructor()));
+    }
+
+    /**
+     * Converts a slot into its compact form without adding its strings to the
+     * dictionary, e.g. to look a slot up.
+     *
+     * @return the compact slot, or null if the slot's day or time is not valid
+     *         or one of its strings is not in the dictionary.
+     */
+
+    public static CompactSlot find(Slot slot, SlotDictionary dictionary, TermCalendar calendar) {
+        int day = calendar.dayOf(slot.getDay());
+        int period = calendar.periodOf(slot.getTime());
+        int course = dictionary.find(slot.getCourseCode());
+        int room = dictionary.find(slot.getRoom());
+        int instructor = dictionary.find(slot.getInstructor());
+        if (day < 0 || period < 0 || course < 0 || room < 0 || instructor < 0) {
+            return null;
+        }
+        return new CompactSlot((byte) day, (byte) period, course, room, instructor);
+    }
+
+    /**
+     * Converts the compact slot back into a Slot with the dictionary's strings.
+     *
+     * @param dictionary The dictionary the IDs were taken from.
+     * @param calendar   The calendar the ordinals were taken from.
+     */
+
+    public Slot toSlot(SlotDictionary dictionary, TermCalendar calendar) {
+        return new Slot(calendar.getDay(day), calendar.startOf(period), dictionary.valueOf(course),
+                        dictionary.valueOf(room), dictionary.valueOf(instructor));
+    }
+
+    /**
+     * Returns true if both slots are at the same day and period.
+     */
+
+    public boolean sameTime(CompactSlot other) {
+        return day == other.day && period == other.period;
+    }
+
+    /**
+     * Returns true if both slots are at the same day and period and share
+     * their course, instructor or room.
+     */
+
+    public boolean conflictsWith(CompactSlot other) {
+        return sameTime(other)
+            && (course == other.course || instructor == other.instructor || room == other.room);
+    }
+}
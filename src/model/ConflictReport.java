@@ -0,0 +1,305 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects the lines and slots that were rejected while loading instructor files.
+ *
+ * Instead of printing a message for every failed check, each rejection is
+ * recorded as an Entry with its reason, the source file and line, and for
+ * conflicts the slot it clashed with. The report can be shown in the UI or
+ * written once as CSV or JSON after loading.
+ *
+ * A report is not thread-safe; every worker fills its own report and they
+ * are merged with addAll in file order.
+ */
+
+public class ConflictReport {
+
+    /**
+     * Why a line or slot was rejected.
+     */
+
+    public enum Reason {
+        MALFORMED_LINE("Malformed line"),
+        INVALID_DAY("Invalid day"),
+        INVALID_TIME("Invalid time"),
+        COURSE("Course is not available"),
+        INSTRUCTOR("Instructor is not available"),
+        ROOM("Room is not available");
+
+        private final String label;
+
+        Reason(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * A single rejection.
+     *
+     * @param reason Why the slot or line was rejected.
+     * @param source Name of the file it was read from, or null if unknown.
+     * @param line   Line number in the file, or 0 if unknown.
+     * @param slot   The rejected slot, or null for a malformed line.
+     * @param other  The slot it conflicts with, or null if it is not a conflict.
+     * @param detail The offending value (day, time, course, instructor or room) or the malformed text.
+     */
+
+    public record Entry(Reason reason, String source, int line, Slot slot, Slot other, String detail) {
+
+        /**
+         * Returns a one-line description, e.g.
+         * "AYigit.txt:3 Room is not available: D1 (conflicts with BErsahin.txt:5)".
+         */
+
+        public String describe() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(location(source, line)).append(' ').append(reason.getLabel()).append(": ").append(detail);
+            if (other != null) {
+                builder.append(" (conflicts with ").append(location(other.getSource(), other.getLine())).append(')');
+            }
+            return builder.toString();
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Reason, Integer> counts = new EnumMap<>(Reason.class);
+
+    /**
+     * Records a line that could not be split into day;time;courseCode;room.
+     */
+
+    public void malformed(String source, int line, String text) {
+        add(new Entry(Reason.MALFORMED_LINE, source, line, null, null, text));
+    }
+
+    /**
+     * Records a slot whose day or time is not valid.
+     *
+     * @param reason INVALID_DAY or INVALID_TIME.
+     */
+
+    public void invalid(Reason reason, Slot slot) {
+        String detail = reason == Reason.INVALID_DAY ? slot.getDay() : slot.getTime();
+        add(new Entry(reason, slot.getSource(), slot.getLine(), slot, null, detail));
+    }
+
+    /**
+     * Records a slot that was rejected because it conflicts with another slot.
+     *
+     * @param reason COURSE, INSTRUCTOR or ROOM.
+     */
+
+    public void conflict(Reason reason, Slot slot, Slot other) {
+        String detail = switch (reason) {
+            case COURSE -> slot.getCourseCode();
+            case INSTRUCTOR -> slot.getInstructor();
+            case ROOM -> slot.getRoom();
+            default -> "";
+        };
+        add(new Entry(reason, slot.getSource(), slot.getLine(), slot, other, detail));
+    }
+
+    /**
+     * Adds an entry to the report.
+     */
+
+    public void add(Entry entry) {
+        entries.add(entry);
+        counts.merge(entry.reason(), 1, Integer::sum);
+    }
+
+    /**
+     * Appends all entries of another report, keeping their order.
+     */
+
+    public void addAll(ConflictReport other) {
+        other.entries.forEach(this::add);
+    }
+
+    /**
+     * Returns the entries in the order they were recorded.
+     */
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Returns how many entries have the given reason.
+     */
+
+    public int count(Reason reason) {
+        return counts.getOrDefault(reason, 0);
+    }
+
+    /**
+     * Returns a short summary such as "3 rejected: Invalid time 1, Room is not available 2".
+     */
+
+    public String summary() {
+        if (entries.isEmpty()) {
+            return "No conflicts";
+        }
+        StringBuilder builder = new StringBuilder().append(entries.size()).append(" rejected:");
+        String separator = " ";
+        for (Reason reason : Reason.values()) {
+            if (count(reason) > 0) {
+                builder.append(separator).append(reason.getLabel()).append(' ').append(count(reason));
+                separator = ", ";
+            }
+        }
+        return builder.toString();
+    }
+
+    public void clear() {
+        entries.clear();
+        counts.clear();
+    }
+
+    /**
+     * Writes the report to a file, as JSON if its name ends with .json and as CSV otherwise.
+     */
+
+    public void write(Path file) throws IOException {
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+            writeJson(file);
+        } else {
+            writeCsv(file);
+        }
+    }
+
+    /**
+     * Writes one row per entry with the columns
+     * reason,source,line,day,time,course,room,instructor,detail,otherSource,otherLine.
+     */
+
+    public void writeCsv(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("reason,source,line,day,time,course,room,instructor,detail,otherSource,otherLine");
+            writer.newLine();
+            for (Entry entry : entries) {
+                Slot slot = entry.slot();
+                Slot other = entry.other();
+                String[] columns = {
+                    entry.reason().name(), entry.source(), String.valueOf(entry.line()),
+                    slot == null ? null : slot.getDay(), slot == null ? null : slot.getTime(),
+                    slot == null ? null : slot.getCourseCode(), slot == null ? null : slot.getRoom(),
+                    slot == null ? null : slot.getInstructor(), entry.detail(),
+                    other == null ? null : other.getSource(), other == null ? null : String.valueOf(other.getLine())
+                };
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csv(columns[i]));
+                }
+                writer.newLine();
+            }
+        }
+        System.out.println("Conflict report " + file + " created successfully.");
+    }
+
+    /**
+     * Writes the report as a JSON array of entries.
+     */
+
+    public void writeJson(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[");
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write("  {\"reason\": " + json(entry.reason().name())
+                             + ", \"source\": " + json(entry.source())
+                             + ", \"line\": " + entry.line()
+                             + ", \"slot\": " + json(entry.slot())
+                             + ", \"detail\": " + json(entry.detail())
+                             + ", \"conflictsWith\": " + json(entry.other()) + "}");
+            }
+            writer.write(entries.isEmpty() ? "]\n" : "\n]\n");
+        }
+        System.out.println("Conflict report " + file + " created successfully.");
+    }
+
+    private static String location(String source, int line) {
+        String file = source == null ? "?" : source;
+        return line > 0 ? file + ":" + line : file;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Returns the slot as a JSON object, or "null".
+     */
+
+    public static String json(Slot slot) {
+        if (slot == null) {
+            return "null";
+        }
+        return "{\"day\": " + json(slot.getDay()) + ", \"time\": " + json(slot.getTime())
+               + ", \"course\": " + json(slot.getCourseCode()) + ", \"room\": " + json(slot.getRoom())
+               + ", \"instructor\": " + json(slot.getInstructor()) + ", \"source\": " + json(slot.getSource())
+               + ", \"line\": " + slot.getLine() + "}";
+    }
+
+    /**
+     * Returns the value as a quoted and escaped JSON string, or "null".
+     */
+
+    public static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
@@ -1,49 +1,200 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
- * Singleton class representing the overall schedule.
- * Holds a list of scheduled slots and provides access to
- * predefined days and time slots.
+ * The overall schedule: the scheduled slots plus the days and time slots of
+ * its TermCalendar. The slots are mirrored in a column-oriented SlotStore for
+ * occupancy queries. The Slot objects stay the schedule's data, because they
+ * carry the file and line they were read from and the loaders and the conflict
+ * report refer to them by identity; the store is an index on top of them, not
+ * a smaller replacement.
+ *
+ * Any number of schedules can exist side by side (see ScheduleWorkspace);
+ * getInstance() returns the one the JavaFX application works on. Changes are
+ * synchronized, and every change increases the version. Readers on other
+ * threads use snapshot() or view(), which return an immutable copy that is
+ * only rebuilt after a change.
  */
 
 public class Schedule {
-    private static final String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
-    private static final String[] timeSlots = {
-        "08:45-09:30", "09:45-10:30", "10:45-11:30", "11:45-12:30",
-        "13:30-14:15", "14:30-15:15", "15:30-16:15", "16:30-17:15"
-    };
-
-    private static Schedule instance; 
+    private final TermCalendar calendar;
+    private final String[] days;
+    private final String[] timeSlots;
     private final List<Slot> slots;   
+    private final SlotStore store;
+    private volatile long version;
+    // Snapshot of the current version, or null if the schedule changed since it was taken
+    private volatile ScheduleSnapshot published;
+
+    /**
+     * Holds the application's schedule; the JVM creates it on first access.
+     */
+
+    private static class Holder {
+        private static final Schedule INSTANCE = create();
+
+        private static Schedule create() {
+            System.out.println("-- Schedule is being instantiated --");
+            return new Schedule();
+        }
+    }
 
     /**
-     * Private constructor to enforce singleton usage.
+     * Creates an empty schedule over the active calendar.
      */
 
-    private Schedule() {
+    public Schedule() {
+        this(TermCalendar.active());
+    }
+
+    /**
+     * Creates an empty schedule over the given calendar, e.g. for another term.
+     */
+
+    public Schedule(TermCalendar calendar) {
+        this.calendar = calendar;
+        this.days = calendar.getDisplayDays();
+        this.timeSlots = calendar.getPeriods();
         this.slots = new ArrayList<>();
+        this.store = new SlotStore(calendar);
     }
 
     /**
-     * Returns the singleton instance of Schedule.
-     * Initializes it if not already created.
+     * Returns the schedule of the JavaFX application.
      */
 
     public static Schedule getInstance() {
-        if (instance == null) {
-            System.out.println("-- Schedule is being instantiated --");
-            instance = new Schedule();
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Adds slots that have already been validated and checked for conflicts.
+     */
+
+    public synchronized void addSlots(Collection<Slot> newSlots) {
+        slots.addAll(newSlots);
+        newSlots.forEach(store::add);
+        changed();
+    }
+
+    /**
+     * Removes the given slots (compared by identity) from the schedule.
+     */
+
+    public synchronized void removeSlots(Collection<Slot> oldSlots) {
+        if (oldSlots.isEmpty()) {
+            return;
+        }
+        Set<Slot> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(oldSlots);
+        slots.removeIf(removed::contains);
+        removed.forEach(store::remove);
+        changed();
+    }
+
+    /**
+     * Adds slots to a schedule whose slots are sorted by the given order, e.g.
+     * file order after an incremental update. The new slots are sorted and
+     * merged in, so the schedule stays sorted in one linear pass instead of
+     * being sorted again.
+     */
+
+    public synchronized void insertSlots(Collection<Slot> newSlots, Comparator<Slot> order) {
+        if (newSlots.isEmpty()) {
+            return;
+        }
+        List<Slot> added = new ArrayList<>(newSlots);
+        added.sort(order);
+        List<Slot> merged = new ArrayList<>(slots.size() + added.size());
+        int i = 0;
+        for (Slot slot : added) {
+            while (i < slots.size() && order.compare(slots.get(i), slot) <= 0) {
+                merged.add(slots.get(i++));
+            }
+            merged.add(slot);
+            store.add(slot);
+        }
+        merged.addAll(slots.subList(i, slots.size()));
+        slots.clear();
+        slots.addAll(merged);
+        changed();
+    }
+
+    /**
+     * Removes every slot from the schedule.
+     */
+
+    public synchronized void clear() {
+        slots.clear();
+        store.clear();
+        changed();
+    }
+
+    private void changed() {
+        version++;
+        published = null;
+    }
+
+    /**
+     * Returns an immutable snapshot of the schedule. It is only copied again
+     * after the schedule changed, so repeated calls are cheap.
+     */
+
+    public ScheduleSnapshot view() {
+        ScheduleSnapshot current = published;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (published == null) {
+                published = new ScheduleSnapshot(version, calendar, slots);
+            }
+            return published;
         }
-        return instance;
     }
 
-    // Getters and setters for each field
+    // Getters for each field
+
+    /**
+     * Returns the scheduled slots. The list is immutable; it is the slots of view().
+     */
 
     public List<Slot> getSlots() {
-        return slots;
+        return view().slots();
+    }
+
+    /**
+     * Returns the occupancy store. Unlike the slots, the store is not copied,
+     * so it should only be read by the thread that changes the schedule.
+     */
+
+    public SlotStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns an immutable copy of the scheduled slots. Exporters read from the
+     * snapshot, so the schedule can be exported any number of times without
+     * re-parsing the input files.
+     */
+
+    public List<Slot> snapshot() {
+        return view().slots();
+    }
+
+    /**
+     * Returns the number of changes made to the schedule so far.
+     */
+
+    public long getVersion() {
+        return version;
     }
 
     public String[] getDays() {
@@ -53,4 +204,8 @@ public class Schedule {
     public String[] getTimeSlots() {
         return timeSlots;
     }
+
+    public TermCalendar getCalendar() {
+        return calendar;
+    }
 }
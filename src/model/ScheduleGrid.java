@@ -0,0 +1,133 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import util.Metrics;
+
+/**
+ * Day x time matrix of scheduled slots shared by the exporters.
+ *
+ * All slots are bucketed into their cell in a single pass, and the text that
+ * the exporters print for a slot (room, course and instructor initials) is
+ * derived once per slot while bucketing, so rendering a schedule only has to
+ * walk the cells.
+ */
+
+public class ScheduleGrid {
+
+    /**
+     * A slot placed in the grid together with its display labels.
+     */
+
+    public record Entry(Slot slot, String course, String instructor) {}
+
+    private final String[] days;
+    private final String[] timeSlots;
+    private final List<List<Entry>> cells;
+    private final Map<String, Integer> dayIndex = new HashMap<>();
+    private final Map<String, Integer> timeIndex = new HashMap<>();
+
+    /**
+     * Buckets the given slots into a grid with one row per time slot and one
+     * column per day. Slots whose day or time is not part of the grid are ignored.
+     *
+     * @param days       List of days (e.g., Monday to Friday)
+     * @param timeSlots  List of time slots in the schedule (e.g., 08:45-09:30)
+     * @param slots      List of Slot objects representing scheduled courses
+     */
+
+    public ScheduleGrid(String[] days, String[] timeSlots, List<Slot> slots) {
+        long start = System.nanoTime();
+        this.days = days;
+        this.timeSlots = timeSlots;
+        this.cells = new ArrayList<>(days.length * timeSlots.length);
+        for (int i = 0; i < days.length * timeSlots.length; i++) {
+            cells.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < days.length; i++) {
+            dayIndex.putIfAbsent(days[i].toLowerCase(Locale.ROOT), i);
+        }
+        for (int i = 0; i < timeSlots.length; i++) {
+            timeIndex.putIfAbsent(timeSlots[i].split("-")[0], i);
+        }
+
+        for (Slot slot : slots) {
+            Integer day = dayIndex.get(slot.getDay().toLowerCase(Locale.ROOT));
+            Integer time = timeIndex.get(slot.getTime());
+            if (day != null && time != null) {
+                cells.get(time * days.length + day)
+                     .add(new Entry(slot, courseLabel(slot), instructorInitials(slot)));
+            }
+        }
+        Metrics.histogram("grid_build_seconds").recordSince(start);
+    }
+
+    /**
+     * Returns the course code without its section suffix, e.g. "CENG218" for
+     * "CENG218(Section-A)".
+     */
+
+    public static String courseLabel(Slot slot) {
+        String courseCode = slot.getCourseCode();
+        int section = courseCode.indexOf('(');
+        return section < 0 ? courseCode : courseCode.substring(0, section);
+    }
+
+    /**
+     * Returns the upper case letters of the instructor's name, e.g. "AY" for "AYigit".
+     */
+
+    public static String instructorInitials(Slot slot) {
+        StringBuilder initials = new StringBuilder();
+        for (char c : slot.getInstructor().toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                initials.append(c);
+            }
+        }
+        return initials.toString();
+    }
+
+    // Getters for the grid dimensions and cells
+
+    public String[] getDays() {
+        return days;
+    }
+
+    public String[] getTimeSlots() {
+        return timeSlots;
+    }
+
+    /**
+     * Returns the column of a day, ignoring case, or -1 if it is not in the grid.
+     */
+
+    public int indexOfDay(String day) {
+        return dayIndex.getOrDefault(day.toLowerCase(Locale.ROOT), -1);
+    }
+
+    /**
+     * Returns the row of the time slot starting at the given time (e.g. "09:45"),
+     * or -1 if it is not in the grid.
+     */
+
+    public int indexOfTime(String time) {
+        return timeIndex.getOrDefault(time, -1);
+    }
+
+    /**
+     * Returns the slots scheduled at the given time slot and day, in the order
+     * they appear in the schedule.
+     *
+     * @param time Row index into the time slots.
+     * @param day  Column index into the days.
+     */
+
+    public List<Entry> getCell(int time, int day) {
+        return cells.get(time * days.length + day);
+    }
+}
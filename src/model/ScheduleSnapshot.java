@@ -0,0 +1,39 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Immutable state of a Schedule at one point in time.
+ *
+ * A snapshot never changes after it is created, so it can be handed to other
+ * threads (e.g. exporters running in parallel) while the schedule itself keeps
+ * changing. The version increases with every change of the schedule, so two
+ * snapshots with the same version have the same slots.
+ *
+ * @param version  Number of changes the schedule had when the snapshot was taken.
+ * @param calendar Calendar of the schedule.
+ * @param slots    The scheduled slots, in schedule order.
+ */
+
+public record ScheduleSnapshot(long version, TermCalendar calendar, List<Slot> slots) {
+
+    public ScheduleSnapshot {
+        slots = List.copyOf(slots);
+    }
+
+    /**
+     * Returns the days shown in the grid, e.g. Monday to Friday.
+     */
+
+    public String[] days() {
+        return calendar.getDisplayDays();
+    }
+
+    /**
+     * Returns the periods of a day, e.g. "08:45-09:30".
+     */
+
+    public String[] timeSlots() {
+        return calendar.getPeriods();
+    }
+}
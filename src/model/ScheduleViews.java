@@ -0,0 +1,89 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Per-instructor, per-room and per-course timetables of a schedule.
+ *
+ * The slots are grouped by all three attributes in a single pass, and each
+ * group is then bucketed into its own ScheduleGrid. Entities are sorted by
+ * name so batch exports always list them in the same order.
+ */
+
+public class ScheduleViews {
+
+    /**
+     * The attribute a timetable is built for.
+     */
+
+    public enum Kind {
+        INSTRUCTOR("Instructor", Slot::getInstructor),
+        ROOM("Room", Slot::getRoom),
+        COURSE("Course", Slot::getCourseCode);
+
+        private final String label;
+        private final Function<Slot, String> key;
+
+        Kind(String label, Function<Slot, String> key) {
+            this.label = label;
+            this.key = key;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String keyOf(Slot slot) {
+            return key.apply(slot);
+        }
+    }
+
+    private final Map<Kind, SortedMap<String, ScheduleGrid>> views = new EnumMap<>(Kind.class);
+
+    /**
+     * Builds the timetables of every instructor, room and course. Slots with a
+     * blank value for an attribute (e.g. no room assigned yet) are left out of
+     * that attribute's timetables.
+     *
+     * @param days       List of days (e.g., Monday to Friday)
+     * @param timeSlots  List of time slots in the schedule (e.g., 08:45-09:30)
+     * @param slots      List of Slot objects representing scheduled courses
+     */
+
+    public ScheduleViews(String[] days, String[] timeSlots, List<Slot> slots) {
+        Map<Kind, SortedMap<String, List<Slot>>> groups = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            groups.put(kind, new TreeMap<>());
+        }
+
+        for (Slot slot : slots) {
+            for (Kind kind : Kind.values()) {
+                String key = kind.keyOf(slot);
+                if (key != null && !key.isBlank()) {
+                    groups.get(kind).computeIfAbsent(key, k -> new ArrayList<>()).add(slot);
+                }
+            }
+        }
+
+        for (Kind kind : Kind.values()) {
+            SortedMap<String, ScheduleGrid> grids = new TreeMap<>();
+            groups.get(kind).forEach((key, group) -> grids.put(key, new ScheduleGrid(days, timeSlots, group)));
+            views.put(kind, Collections.unmodifiableSortedMap(grids));
+        }
+    }
+
+    /**
+     * Returns the timetables of the given kind, keyed and sorted by entity name.
+     */
+
+    public SortedMap<String, ScheduleGrid> get(Kind kind) {
+        return views.get(kind);
+    }
+}
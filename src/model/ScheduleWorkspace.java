@@ -0,0 +1,96 @@
+package model;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named, independent schedules, e.g. one per department or term.
+ *
+ * Each schedule is its own Schedule instance with its own slots and occupancy
+ * store, so different schedules can be loaded and exported on different
+ * threads at the same time. The workspace itself is thread-safe; a schedule
+ * is created at most once per name even if several threads ask for it.
+ */
+
+public class ScheduleWorkspace {
+
+    private final TermCalendar calendar;
+    private final Map<String, Schedule> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a workspace whose schedules use the active calendar.
+     */
+
+    public ScheduleWorkspace() {
+        this(TermCalendar.active());
+    }
+
+    /**
+     * Creates a workspace whose schedules use the given calendar by default.
+     */
+
+    public ScheduleWorkspace(TermCalendar calendar) {
+        this.calendar = calendar;
+    }
+
+    /**
+     * Returns the schedule with the given name, creating an empty one if needed.
+     */
+
+    public Schedule getOrCreate(String name) {
+        return schedules.computeIfAbsent(name, key -> new Schedule(calendar));
+    }
+
+    /**
+     * Creates an empty schedule with its own calendar, e.g. for another term.
+     *
+     * @throws IllegalArgumentException if a schedule with that name already exists.
+     */
+
+    public Schedule create(String name, TermCalendar calendar) {
+        Schedule schedule = new Schedule(calendar);
+        if (schedules.putIfAbsent(name, schedule) != null) {
+            throw new IllegalArgumentException("Schedule " + name + " already exists");
+        }
+        return schedule;
+    }
+
+    /**
+     * Returns the schedule with the given name, or null if there is none.
+     */
+
+    public Schedule get(String name) {
+        return schedules.get(name);
+    }
+
+    /**
+     * Removes a schedule from the workspace.
+     *
+     * @return the removed schedule, or null if there was none.
+     */
+
+    public Schedule remove(String name) {
+        return schedules.remove(name);
+    }
+
+    /**
+     * Returns the names of all schedules, sorted.
+     */
+
+    public Set<String> names() {
+        return new TreeSet<>(schedules.keySet());
+    }
+
+    /**
+     * Returns an immutable snapshot of every schedule, sorted by name.
+     */
+
+    public Map<String, ScheduleSnapshot> snapshots() {
+        Map<String, ScheduleSnapshot> snapshots = new TreeMap<>();
+        schedules.forEach((name, schedule) -> snapshots.put(name, schedule.view()));
+        return snapshots;
+    }
+}
@@ -9,6 +9,8 @@ package model;
 public class Slot{
 
     private String day, time, courseCode, room, instructor;
+    private String source;
+    private int line;
 
 	/**
      * Constructs a Slot with the specified details.
@@ -22,6 +24,17 @@ public class Slot{
 		this.instructor = instructor;
 	}
 
+	/**
+     * Constructs a Slot that remembers the file and line it was read from,
+     * so that conflicts can be reported with their origin.
+     */
+
+	public Slot(String day, String time, String courseCode, String room, String instructor, String source, int line) {
+		this(day, time, courseCode, room, instructor);
+		this.source = source;
+		this.line = line;
+	}
+
 	// Getters and setters for each field
 	
 	public String getDay() {
@@ -64,6 +77,22 @@ public class Slot{
 		this.instructor = instructor;
 	}
 
+	/**
+     * Returns the name of the file the slot was read from, or null if unknown.
+     */
+
+	public String getSource() {
+		return source;
+	}
+
+	/**
+     * Returns the line the slot was read from, or 0 if unknown.
+     */
+
+	public int getLine() {
+		return line;
+	}
+
 	@Override
 	public String toString() {
 		return "Slot [day=" + day + ", time=" + time + ", courseCode=" + courseCode + ", room=" + room
@@ -0,0 +1,94 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary that maps the strings of slots (courses, rooms, instructors, ...)
+ * to small integer IDs and back.
+ *
+ * Every distinct string is stored once. Each SlotStore owns its dictionary,
+ * so the strings live as long as the store's slots and are dropped when the
+ * store is cleared. Lookups are lock-free; only adding a new string takes a
+ * lock, which makes the dictionary safe to use from several threads.
+ *
+ * Queries that only ask about a string (e.g. "is this room free?") use find,
+ * which never adds it, so looking up names that aren't scheduled doesn't grow
+ * the dictionary.
+ */
+
+public class SlotDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    /**
+     * Returns the ID of the given string, adding it to the dictionary if needed.
+     *
+     * @param value The string to look up.
+     * @return the ID of the string.
+     */
+
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    /**
+     * Returns the ID of the given string without adding it.
+     *
+     * @param value The string to look up.
+     * @return the ID of the string, or -1 if it isn't in the dictionary.
+     */
+
+    public int find(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the string with the given ID.
+     *
+     * @param id An ID returned by idOf.
+     */
+
+    public String valueOf(int id) {
+        return values[id];
+    }
+
+    /**
+     * Returns the dictionary's copy of the given string, adding it if needed.
+     *
+     * @param value The string to intern.
+     * @return a string equal to value that is shared by all callers.
+     */
+
+    public String intern(String value) {
+        return valueOf(idOf(value));
+    }
+
+    /**
+     * Returns the number of distinct strings in the dictionary.
+     */
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int add(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        // Publish the array before the ID, so any thread that sees the ID also sees the value
+        values = current;
+        ids.put(value, size);
+        return size++;
+    }
+}
@@ -0,0 +1,340 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Column-oriented store of scheduled slots.
+ *
+ * Slots are kept in parallel primitive arrays (day, period, course, room and
+ * instructor) instead of a list of objects. For every room, instructor and
+ * course the store also keeps a bitset over the week's day x period cells,
+ * so availability checks and free-room queries are single bit operations.
+ *
+ * The IDs come from the store's own SlotDictionary, which is emptied together
+ * with the store.
+ */
+
+public class SlotStore {
+
+    private SlotDictionary dictionary = new SlotDictionary();
+    private final TermCalendar calendar;
+    private final int periodsPerDay;
+
+    private byte[] days = new byte[64];
+    private byte[] periods = new byte[64];
+    private int[] courses = new int[64];
+    private int[] rooms = new int[64];
+    private int[] instructors = new int[64];
+    private int size;
+
+    // Occupancy per dictionary ID, one bit per day x period cell
+    private BitSet[] roomCells = new BitSet[0];
+    private BitSet[] instructorCells = new BitSet[0];
+    private BitSet[] courseCells = new BitSet[0];
+    private final BitSet knownRooms = new BitSet();
+    // Positions of the slots in every cell, so removing a slot only looks at its own cell
+    private final int[][] cellSlots;
+    private final int[] cellSizes;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param calendar      Calendar the day and period ordinals come from.
+     */
+
+    public SlotStore(TermCalendar calendar) {
+        this.calendar = calendar;
+        this.periodsPerDay = calendar.getPeriodCount();
+        this.cellSlots = new int[cellsPerWeek()][0];
+        this.cellSizes = new int[cellsPerWeek()];
+    }
+
+    /**
+     * Adds a slot to the store.
+     *
+     * @param slot The slot to add.
+     * @return false if the slot's day or time can't be represented; true otherwise.
+     */
+
+    public boolean add(Slot slot) {
+        CompactSlot compact = CompactSlot.of(slot, dictionary, calendar);
+        if (compact == null) {
+            return false;
+        }
+        add(compact);
+        return true;
+    }
+
+    /**
+     * Adds a compact slot to the store and marks its cell as occupied for its
+     * room, instructor and course.
+     */
+
+    public void add(CompactSlot slot) {
+        if (size == days.length) {
+            int capacity = size * 2;
+            days = Arrays.copyOf(days, capacity);
+            periods = Arrays.copyOf(periods, capacity);
+            courses = Arrays.copyOf(courses, capacity);
+            rooms = Arrays.copyOf(rooms, capacity);
+            instructors = Arrays.copyOf(instructors, capacity);
+        }
+        days[size] = slot.day();
+        periods[size] = slot.period();
+        courses[size] = slot.course();
+        rooms[size] = slot.room();
+        instructors[size] = slot.instructor();
+
+        int cell = cellOf(slot.day(), slot.period());
+        if (cellSizes[cell] == cellSlots[cell].length) {
+            cellSlots[cell] = Arrays.copyOf(cellSlots[cell], Math.max(4, cellSizes[cell] * 2));
+        }
+        cellSlots[cell][cellSizes[cell]++] = size;
+        size++;
+
+        roomCells = occupancy(roomCells, slot.room());
+        roomCells[slot.room()].set(cell);
+        instructorCells = occupancy(instructorCells, slot.instructor());
+        instructorCells[slot.instructor()].set(cell);
+        courseCells = occupancy(courseCells, slot.course());
+        courseCells[slot.course()].set(cell);
+        knownRooms.set(slot.room());
+    }
+
+    /**
+     * Removes a slot from the store. Its cell is only marked free again for
+     * the room, instructor or course if no other slot in the store holds it.
+     *
+     * @param slot The slot to remove.
+     * @return true if a matching slot was found and removed.
+     */
+
+    public boolean remove(Slot slot) {
+        CompactSlot compact = CompactSlot.find(slot, dictionary, calendar);
+        return compact != null && remove(compact);
+    }
+
+    /**
+     * Removes one slot equal to the given compact slot. The last slot is moved
+     * into its position, so the order of the remaining slots changes. Only the
+     * slots in the same cell are looked at.
+     */
+
+    public boolean remove(CompactSlot slot) {
+        int cell = cellOf(slot.day(), slot.period());
+        int[] positions = cellSlots[cell];
+        int found = -1;
+        for (int k = 0; k < cellSizes[cell] && found < 0; k++) {
+            int i = positions[k];
+            if (courses[i] == slot.course() && rooms[i] == slot.room() && instructors[i] == slot.instructor()) {
+                found = k;
+            }
+        }
+        if (found < 0) {
+            return false;
+        }
+        int index = positions[found];
+        positions[found] = positions[--cellSizes[cell]];
+
+        size--;
+        if (index != size) {
+            days[index] = days[size];
+            periods[index] = periods[size];
+            courses[index] = courses[size];
+            rooms[index] = rooms[size];
+            instructors[index] = instructors[size];
+            int[] moved = cellSlots[cellOf(days[index], periods[index])];
+            for (int k = 0; ; k++) {
+                if (moved[k] == size) {
+                    moved[k] = index;
+                    break;
+                }
+            }
+        }
+
+        boolean roomHeld = false, instructorHeld = false, courseHeld = false;
+        for (int k = 0; k < cellSizes[cell]; k++) {
+            int i = positions[k];
+            roomHeld |= rooms[i] == slot.room();
+            instructorHeld |= instructors[i] == slot.instructor();
+            courseHeld |= courses[i] == slot.course();
+        }
+        if (!roomHeld) {
+            roomCells[slot.room()].clear(cell);
+        }
+        if (!instructorHeld) {
+            instructorCells[slot.instructor()].clear(cell);
+        }
+        if (!courseHeld) {
+            courseCells[slot.course()].clear(cell);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the dictionary the course, room and instructor IDs of this store
+     * come from. Use find on it to look names up without adding them.
+     */
+
+    public SlotDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the number of slots in the store.
+     */
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot at the given position.
+     */
+
+    public CompactSlot get(int index) {
+        return new CompactSlot(days[index], periods[index], courses[index], rooms[index], instructors[index]);
+    }
+
+    /**
+     * Checks whether the room, instructor or course of the given slot is
+     * already occupied at the slot's day and period.
+     */
+
+    public boolean conflicts(CompactSlot slot) {
+        int cell = cellOf(slot.day(), slot.period());
+        return isSet(roomCells, slot.room(), cell) || isSet(instructorCells, slot.instructor(), cell)
+            || isSet(courseCells, slot.course(), cell);
+    }
+
+    /**
+     * Checks whether a room is free at the given day and period.
+     *
+     * @param room   Dictionary ID of the room; -1 (not in the dictionary) is always free.
+     * @param day    Index of the day in the calendar.
+     * @param period Index of the period in the day.
+     */
+
+    public boolean isRoomFree(int room, int day, int period) {
+        return !isSet(roomCells, room, cellOf(day, period));
+    }
+
+    /**
+     * Returns the cells (day * periodsPerDay + period) in which the room is occupied.
+     * The returned bitset is a copy.
+     */
+
+    public BitSet roomOccupancy(int room) {
+        return copyOf(roomCells, room);
+    }
+
+    /**
+     * Returns the cells in which the instructor is occupied. The returned bitset is a copy.
+     */
+
+    public BitSet instructorOccupancy(int instructor) {
+        return copyOf(instructorCells, instructor);
+    }
+
+    /**
+     * Returns the cells in which the course is occupied. The returned bitset is a copy.
+     */
+
+    public BitSet courseOccupancy(int course) {
+        return copyOf(courseCells, course);
+    }
+
+    /**
+     * Returns the names of all rooms seen by the store that are free at the
+     * given day and time, e.g. freeRooms("Tuesday", "13:30"). Blank rooms are skipped.
+     *
+     * @return the free rooms, or an empty list if the day or time is not valid.
+     */
+
+    public List<String> freeRooms(String day, String time) {
+        int dayIndex = calendar.dayOf(day);
+        int period = calendar.periodOf(time);
+        List<String> free = new ArrayList<>();
+        if (dayIndex < 0 || period < 0) {
+            return free;
+        }
+        int cell = cellOf(dayIndex, period);
+        for (int room = knownRooms.nextSetBit(0); room >= 0; room = knownRooms.nextSetBit(room + 1)) {
+            String name = dictionary.valueOf(room);
+            if (!name.isBlank() && !isSet(roomCells, room, cell)) {
+                free.add(name);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Returns the names of all rooms seen by the store, in the order they were
+     * first added. A room stays known after its last slot is removed; only
+     * clear() forgets it. Blank rooms are skipped.
+     */
+
+    public List<String> roomNames() {
+        List<String> names = new ArrayList<>();
+        for (int room = knownRooms.nextSetBit(0); room >= 0; room = knownRooms.nextSetBit(room + 1)) {
+            String name = dictionary.valueOf(room);
+            if (!name.isBlank()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the number of day x period cells in a week.
+     */
+
+    public int cellsPerWeek() {
+        return calendar.getDayCount() * periodsPerDay;
+    }
+
+    /**
+     * Returns the cell index of a day and period.
+     */
+
+    public int cellOf(int day, int period) {
+        return day * periodsPerDay + period;
+    }
+
+    /**
+     * Removes every slot from the store and starts a new dictionary, so names
+     * of earlier slots are not kept alive.
+     */
+
+    public void clear() {
+        size = 0;
+        dictionary = new SlotDictionary();
+        Arrays.fill(cellSizes, 0);
+        roomCells = new BitSet[0];
+        instructorCells = new BitSet[0];
+        courseCells = new BitSet[0];
+        knownRooms.clear();
+    }
+
+    private static BitSet[] occupancy(BitSet[] cells, int id) {
+        if (id >= cells.length) {
+            int oldLength = cells.length;
+            cells = Arrays.copyOf(cells, Math.max(id + 1, oldLength * 2));
+            for (int i = oldLength; i < cells.length; i++) {
+                cells[i] = new BitSet();
+            }
+        }
+        return cells;
+    }
+
+    private static boolean isSet(BitSet[] cells, int id, int cell) {
+        return id >= 0 && id < cells.length && cells[id].get(cell);
+    }
+
+    private static BitSet copyOf(BitSet[] cells, int id) {
+        return id >= 0 && id < cells.length ? (BitSet) cells[id].clone() : new BitSet();
+    }
+}
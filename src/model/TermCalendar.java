@@ -0,0 +1,222 @@
+package model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Days and periods that slots can be scheduled in.
+ *
+ * Calendars are defined as profiles in resources/calendar.properties, so that
+ * e.g. evening or weekend programs and other campuses can use their own days
+ * and periods:
+ *
+ * <pre>
+ * default.days=Monday,Tuesday,...,Sunday      days a slot may be on
+ * default.displayDays=Monday,...,Friday       grid columns (optional, defaults to days)
+ * default.periods=08:45-09:30,09:45-10:30,... periods as start-end times
+ * </pre>
+ *
+ * The active profile is chosen with the system property scheduler.calendar and
+ * loaded once. Lookups from day names and start times to their indexes are
+ * precomputed hash tables, so validating a slot is a constant time operation.
+ */
+
+public class TermCalendar {
+
+    public static final Path CONFIG_FILE = Paths.get("resources", "calendar.properties");
+    public static final String DEFAULT_PROFILE = "default";
+
+    private static final String[] DEFAULT_DAYS = {
+        "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"
+    };
+    private static final String[] DEFAULT_DISPLAY_DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
+    private static final String[] DEFAULT_PERIODS = {
+        "08:45-09:30", "09:45-10:30", "10:45-11:30", "11:45-12:30",
+        "13:30-14:15", "14:30-15:15", "15:30-16:15", "16:30-17:15"
+    };
+
+    private final String name;
+    private final String[] days;
+    private final String[] displayDays;
+    private final String[] periods;
+    private final String[] starts;
+    private final int[] durations;
+    private final Map<String, Integer> dayIndex = new HashMap<>();
+    private final Map<String, Integer> periodIndex = new HashMap<>();
+
+    /**
+     * Holder of the active calendar, loaded the first time it is used.
+     */
+
+    private static class Active {
+        static final TermCalendar calendar = load(CONFIG_FILE, System.getProperty("scheduler.calendar", DEFAULT_PROFILE));
+    }
+
+    /**
+     * Creates a calendar.
+     *
+     * @param name        Name of the profile.
+     * @param days        Days a slot may be scheduled on.
+     * @param displayDays Days shown as columns of the schedule grid.
+     * @param periods     Periods of a day as "start-end" times, e.g. "08:45-09:30".
+     */
+
+    public TermCalendar(String name, String[] days, String[] displayDays, String[] periods) {
+        this.name = name;
+        this.days = days.clone();
+        this.displayDays = displayDays.clone();
+        this.periods = periods.clone();
+        this.starts = new String[periods.length];
+        this.durations = new int[periods.length];
+
+        for (int i = 0; i < days.length; i++) {
+            dayIndex.putIfAbsent(days[i].toLowerCase(Locale.ROOT), i);
+        }
+        for (int i = 0; i < periods.length; i++) {
+            String[] times = periods[i].split("-");
+            if (times.length != 2) {
+                throw new IllegalArgumentException("Period " + periods[i] + " of calendar " + name + " is not start-end");
+            }
+            starts[i] = times[0];
+            durations[i] = minutesOf(times[1]) - minutesOf(times[0]);
+            periodIndex.putIfAbsent(starts[i], i);
+        }
+        for (String day : displayDays) {
+            if (!dayIndex.containsKey(day.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Display day " + day + " is not a day of calendar " + name);
+            }
+        }
+    }
+
+    /**
+     * Returns the calendar in use, loading it on first access.
+     */
+
+    public static TermCalendar active() {
+        return Active.calendar;
+    }
+
+    /**
+     * Returns the built-in calendar: Monday to Sunday with eight 45 minute
+     * periods, of which Monday to Friday are shown.
+     */
+
+    public static TermCalendar defaults() {
+        return new TermCalendar(DEFAULT_PROFILE, DEFAULT_DAYS, DEFAULT_DISPLAY_DAYS, DEFAULT_PERIODS);
+    }
+
+    /**
+     * Loads a calendar profile from a properties file. The built-in calendar
+     * is used if the file does not exist and the default profile is requested.
+     *
+     * @param file    The calendar properties file.
+     * @param profile Name of the profile to load.
+     */
+
+    public static TermCalendar load(Path file, String profile) {
+        if (!Files.exists(file)) {
+            if (DEFAULT_PROFILE.equals(profile)) {
+                return defaults();
+            }
+            throw new IllegalStateException("Calendar file " + file + " couldn't be found");
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("There was an error during reading the calendar " + file, e);
+        }
+
+        String days = properties.getProperty(profile + ".days");
+        String periods = properties.getProperty(profile + ".periods");
+        if (days == null || periods == null) {
+            throw new IllegalStateException("Calendar " + profile + " needs " + profile + ".days and "
+                                            + profile + ".periods in " + file);
+        }
+        String displayDays = properties.getProperty(profile + ".displayDays", days);
+        return new TermCalendar(profile, split(days), split(displayDays), split(periods));
+    }
+
+    private static String[] split(String list) {
+        return Arrays.stream(list.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toArray(String[]::new);
+    }
+
+    private static int minutesOf(String time) {
+        String[] parts = time.trim().split(":");
+        return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+    }
+
+    /**
+     * Returns the index of a day name, ignoring case, or -1 if the calendar has no such day.
+     */
+
+    public int dayOf(String day) {
+        return dayIndex.getOrDefault(day.toLowerCase(Locale.ROOT), -1);
+    }
+
+    /**
+     * Returns the index of the period that starts at the given time
+     * (e.g. 1 for "09:45"), or -1 if no period starts then.
+     */
+
+    public int periodOf(String time) {
+        return periodIndex.getOrDefault(time, -1);
+    }
+
+    /**
+     * Returns the start time of the period with the given index (e.g. "09:45" for 1).
+     */
+
+    public String startOf(int period) {
+        return starts[period];
+    }
+
+    /**
+     * Returns the length of the period with the given index in minutes.
+     */
+
+    public int durationOf(int period) {
+        return durations[period];
+    }
+
+    // Getters for each field
+
+    public String getName() {
+        return name;
+    }
+
+    public String[] getDays() {
+        return days.clone();
+    }
+
+    public String getDay(int day) {
+        return days[day];
+    }
+
+    public String[] getDisplayDays() {
+        return displayDays.clone();
+    }
+
+    public String[] getPeriods() {
+        return periods.clone();
+    }
+
+    public int getDayCount() {
+        return days.length;
+    }
+
+    public int getPeriodCount() {
+        return periods.length;
+    }
+}
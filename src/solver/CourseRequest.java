@@ -0,0 +1,66 @@
+package solver;
+
+import java.util.List;
+
+import model.Slot;
+
+/**
+ * Hours of a course that still have to be placed in the timetable.
+ *
+ * A request either leaves day and time to the solver, or fixes them and only
+ * asks for a room, which is how slots with a blank room (e.g. in BErsahin.txt)
+ * are handed to the solver.
+ *
+ * @param course     Course code, e.g. "CENG113M".
+ * @param instructor Instructor teaching the course.
+ * @param hours      Number of periods to place, each on a different day/period.
+ * @param rooms      Rooms the course may use; empty means any room.
+ * @param day        Fixed day, or null to let the solver choose.
+ * @param time       Fixed start time, or null to let the solver choose.
+ * @param origin     The scheduled slot this request replaces, or null.
+ */
+
+public record CourseRequest(String course, String instructor, int hours, List<String> rooms,
+                            String day, String time, Slot origin) {
+
+    public CourseRequest {
+        if (hours < 1) {
+            throw new IllegalArgumentException("Request for " + course + " needs at least one hour");
+        }
+        rooms = List.copyOf(rooms);
+    }
+
+    /**
+     * Creates a request whose hours may be placed at any free day and period.
+     */
+
+    public static CourseRequest of(String course, String instructor, int hours, List<String> rooms) {
+        return new CourseRequest(course, instructor, hours, rooms, null, null, null);
+    }
+
+    /**
+     * Creates a request that keeps the day and time of a scheduled slot and
+     * only asks for a room.
+     */
+
+    public static CourseRequest roomFor(Slot slot) {
+        return new CourseRequest(slot.getCourseCode(), slot.getInstructor(), 1, List.of(),
+                                 slot.getDay(), slot.getTime(), slot);
+    }
+
+    /**
+     * Returns true if the solver only has to choose a room.
+     */
+
+    public boolean hasFixedTime() {
+        return day != null && time != null;
+    }
+
+    /**
+     * Returns a copy of this request with a different number of hours.
+     */
+
+    public CourseRequest withHours(int hours) {
+        return new CourseRequest(course, instructor, hours, rooms, day, time, origin);
+    }
+}
@@ -0,0 +1,212 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import model.ConflictReport;
+import model.ConflictReport.Entry;
+import model.ConflictReport.Reason;
+import model.Schedule;
+import model.ScheduleSnapshot;
+import model.Slot;
+import model.SlotDictionary;
+import model.SlotStore;
+import model.TermCalendar;
+
+/**
+ * Suggests where a rejected slot could go instead.
+ *
+ * For a slot that was rejected because of a course, instructor or room
+ * conflict, every free (day, period, room) cell of the displayed days is a
+ * candidate if the room, the instructor and the course are all free there.
+ * The rooms are every room the SlotStore has seen, plus the slot's own room,
+ * which may not hold any accepted slot yet.
+ * The occupancy comes from the schedule's SlotStore bitsets, so checking a
+ * candidate is three bit lookups. Candidates are ranked by how far they move
+ * the slot: keeping the day matters most, then staying close to the original
+ * period, then keeping the room. The k cheapest are returned.
+ *
+ * Rejected slots are independent of each other, so they are handled in
+ * parallel. Each suggestion is checked against the schedule only, not
+ * against the suggestions made for other rejected slots.
+ */
+
+public class RepairAdvisor {
+
+    private static final int ROOM_CHANGE = 1;
+    private static final int PERIOD_STEP = 2;
+    private static final int DAY_CHANGE = 6;
+
+    /**
+     * An alternative for a rejected slot.
+     *
+     * @param slot The slot moved to a free day, time and room.
+     * @param cost How far it is from the rejected slot; lower is better.
+     */
+
+    public record Suggestion(Slot slot, int cost) {
+
+        /**
+         * Returns the suggestion as e.g. "Tuesday 13:30 D1".
+         */
+
+        public String describe() {
+            return slot.getDay() + " " + slot.getTime() + " " + slot.getRoom();
+        }
+    }
+
+    /**
+     * The suggestions for one entry of a conflict report.
+     */
+
+    public record Repair(Entry entry, List<Suggestion> suggestions) {}
+
+    private final TermCalendar calendar;
+    private final SlotDictionary dictionary;
+    private final int limit;
+    private final int[] cells;
+    private final String[] rooms;
+    private final BitSet[] roomBusy;
+    private final SlotStore store;
+
+    /**
+     * Takes a snapshot of the schedule's occupancy. The instructor and course
+     * occupancy is read from the schedule's store while suggesting, so the
+     * schedule must not change until then.
+     *
+     * @param schedule The schedule the suggestions must fit into.
+     * @param limit    How many suggestions to return per slot.
+     */
+
+    public RepairAdvisor(Schedule schedule, int limit) {
+        this(schedule.getCalendar(), schedule.getStore(), limit);
+    }
+
+    /**
+     * Builds its own occupancy from an immutable snapshot, so it can run on
+     * another thread while the schedule keeps changing.
+     *
+     * @param snapshot The state of the schedule the suggestions must fit into.
+     * @param limit    How many suggestions to return per slot.
+     */
+
+    public RepairAdvisor(ScheduleSnapshot snapshot, int limit) {
+        this(snapshot.calendar(), storeOf(snapshot), limit);
+    }
+
+    private RepairAdvisor(TermCalendar calendar, SlotStore store, int limit) {
+        this.calendar = calendar;
+        this.limit = limit;
+        this.store = store;
+        this.dictionary = store.getDictionary();
+
+        List<Integer> displayCells = new ArrayList<>();
+        for (String day : calendar.getDisplayDays()) {
+            int dayIndex = calendar.dayOf(day);
+            for (int period = 0; period < calendar.getPeriodCount(); period++) {
+                displayCells.add(store.cellOf(dayIndex, period));
+            }
+        }
+        this.cells = displayCells.stream().mapToInt(Integer::intValue).toArray();
+
+        this.rooms = store.roomNames().toArray(new String[0]);
+        this.roomBusy = new BitSet[rooms.length];
+        for (int r = 0; r < rooms.length; r++) {
+            roomBusy[r] = store.roomOccupancy(dictionary.find(rooms[r]));
+        }
+    }
+
+    /**
+     * Suggests alternatives for every conflict in the report. Entries for
+     * invalid or malformed lines are skipped, and so are exact duplicates of a
+     * scheduled slot (same course, instructor, day and time), which need no
+     * new place.
+     *
+     * @return one repair per conflict, in report order.
+     */
+
+    public List<Repair> suggest(ConflictReport report) {
+        return report.getEntries().parallelStream()
+            .filter(RepairAdvisor::isRepairable)
+            .map(entry -> new Repair(entry, suggest(entry.slot())))
+            .toList();
+    }
+
+    /**
+     * Returns the cheapest free alternatives for a slot, cheapest first.
+     */
+
+    public List<Suggestion> suggest(Slot slot) {
+        BitSet busy = store.instructorOccupancy(dictionary.find(slot.getInstructor()));
+        busy.or(store.courseOccupancy(dictionary.find(slot.getCourseCode())));
+
+        int day = calendar.dayOf(slot.getDay());
+        int period = calendar.periodOf(slot.getTime());
+
+        // A room that no accepted slot uses is free in every cell
+        String[] rooms = this.rooms;
+        BitSet[] roomBusy = this.roomBusy;
+        if (!slot.getRoom().isBlank() && !Arrays.asList(rooms).contains(slot.getRoom())) {
+            rooms = Arrays.copyOf(rooms, rooms.length + 1);
+            rooms[rooms.length - 1] = slot.getRoom();
+            roomBusy = Arrays.copyOf(roomBusy, roomBusy.length + 1);
+            roomBusy[roomBusy.length - 1] = store.roomOccupancy(dictionary.find(slot.getRoom()));
+        }
+
+        // Max-heap of the best candidates so far, so the worst one can be dropped
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(Comparator.comparingInt(Suggestion::cost).reversed());
+        for (int cell : cells) {
+            if (busy.get(cell)) {
+                continue;
+            }
+            int cellDay = cell / calendar.getPeriodCount();
+            int cellPeriod = cell % calendar.getPeriodCount();
+            int moveCost = (cellDay == day ? 0 : DAY_CHANGE + Math.abs(cellDay - day))
+                           + PERIOD_STEP * Math.abs(cellPeriod - period);
+            for (int r = 0; r < rooms.length; r++) {
+                if (roomBusy[r].get(cell)) {
+                    continue;
+                }
+                int cost = moveCost + (rooms[r].equals(slot.getRoom()) ? 0 : ROOM_CHANGE);
+                if (best.size() < limit) {
+                    best.add(new Suggestion(moved(slot, cellDay, cellPeriod, rooms[r]), cost));
+                } else if (cost < best.peek().cost()) {
+                    best.poll();
+                    best.add(new Suggestion(moved(slot, cellDay, cellPeriod, rooms[r]), cost));
+                }
+            }
+        }
+
+        List<Suggestion> sorted = new ArrayList<>(best);
+        sorted.sort(Comparator.comparingInt(Suggestion::cost));
+        return sorted;
+    }
+
+    private static SlotStore storeOf(ScheduleSnapshot snapshot) {
+        SlotStore store = new SlotStore(snapshot.calendar());
+        snapshot.slots().forEach(store::add);
+        return store;
+    }
+
+    private Slot moved(Slot slot, int day, int period, String room) {
+        return new Slot(calendar.getDay(day), calendar.startOf(period), slot.getCourseCode(), room,
+                        slot.getInstructor(), slot.getSource(), slot.getLine());
+    }
+
+    private static boolean isRepairable(Entry entry) {
+        if (entry.slot() == null || entry.other() == null) {
+            return false;
+        }
+        if (entry.reason() != Reason.COURSE && entry.reason() != Reason.INSTRUCTOR && entry.reason() != Reason.ROOM) {
+            return false;
+        }
+        Slot slot = entry.slot();
+        Slot other = entry.other();
+        return !(slot.getCourseCode().equals(other.getCourseCode()) && slot.getInstructor().equals(other.getInstructor())
+                 && slot.getDay().equals(other.getDay()) && slot.getTime().equals(other.getTime()));
+    }
+}
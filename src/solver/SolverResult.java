@@ -0,0 +1,44 @@
+package solver;
+
+import java.util.List;
+
+import model.Schedule;
+import model.Slot;
+
+/**
+ * Best assignment the solver found.
+ *
+ * @param placed    Slots created for the placed hours, in request order.
+ * @param replaced  Scheduled slots (e.g. with a blank room) that the placed slots replace.
+ * @param unplaced  Requests with the hours that could not be placed.
+ * @param complete  True if every requested hour was placed.
+ * @param proven    True if the search space was exhausted, so no assignment places more hours.
+ * @param nodes     Number of search nodes visited by all workers.
+ * @param millis    Time the search took.
+ */
+
+public record SolverResult(List<Slot> placed, List<Slot> replaced, List<CourseRequest> unplaced,
+                           boolean complete, boolean proven, long nodes, long millis) {
+
+    /**
+     * Adds the placed slots to the schedule and removes the slots they replace.
+     */
+
+    public void applyTo(Schedule schedule) {
+        schedule.removeSlots(replaced);
+        schedule.addSlots(placed);
+    }
+
+    /**
+     * Returns a short summary such as "12 of 14 hours placed in 350 ms".
+     */
+
+    public String summary() {
+        int missing = unplaced.stream().mapToInt(CourseRequest::hours).sum();
+        String text = placed.size() + " of " + (placed.size() + missing) + " hours placed in " + millis + " ms";
+        if (!complete) {
+            text += proven ? " (no better assignment exists)" : " (best found within the time budget)";
+        }
+        return text;
+    }
+}
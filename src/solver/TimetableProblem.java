@@ -0,0 +1,256 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Schedule;
+import model.Slot;
+import model.SlotDictionary;
+import model.SlotStore;
+import model.TermCalendar;
+
+/**
+ * Input of the TimetableSolver: the slots that are already fixed, the rooms
+ * that can be used, instructor availability and the course hours to place.
+ *
+ * Every hour of a request becomes one variable. Its domain is the set of
+ * (cell, room) values it can take, where a cell is a day x period of the
+ * calendar (see SlotStore.cellOf) and the value is cell * roomCount + room.
+ * Values whose room, instructor or course is occupied by a fixed slot, or
+ * whose instructor is unavailable, are removed before the search starts.
+ * Free requests also can't use the cells of fixed-time requests with the same
+ * instructor or course, because those cells stay taken whether or not the
+ * fixed-time request is placed.
+ */
+
+public class TimetableProblem {
+
+    private final TermCalendar calendar;
+    private final SlotStore fixed;
+    private final Map<String, Integer> rooms = new LinkedHashMap<>();
+    private final List<CourseRequest> requests = new ArrayList<>();
+    private final Map<String, BitSet> unavailable = new HashMap<>();
+
+    /**
+     * Creates an empty problem over the given calendar.
+     */
+
+    public TimetableProblem(TermCalendar calendar) {
+        this.calendar = calendar;
+        this.fixed = new SlotStore(calendar);
+    }
+
+    /**
+     * Creates a problem from a schedule. Slots with a room become fixed slots
+     * and their rooms the rooms the solver may use; slots with a blank room
+     * become requests that keep their day and time and ask for a room.
+     */
+
+    public static TimetableProblem fromSchedule(Schedule schedule) {
+        TimetableProblem problem = new TimetableProblem(schedule.getCalendar());
+        for (Slot slot : schedule.getSlots()) {
+            if (slot.getRoom().isBlank()) {
+                problem.addRequest(CourseRequest.roomFor(slot));
+            } else {
+                problem.addFixed(slot);
+            }
+        }
+        return problem;
+    }
+
+    /**
+     * Adds a slot that can't be moved. Its room is added to the rooms.
+     */
+
+    public void addFixed(Slot slot) {
+        if (fixed.add(slot) && !slot.getRoom().isBlank()) {
+            addRoom(slot.getRoom());
+        }
+    }
+
+    /**
+     * Adds a room the solver may use.
+     */
+
+    public void addRoom(String room) {
+        rooms.putIfAbsent(room, rooms.size());
+    }
+
+    /**
+     * Adds course hours to place. Rooms the request names are added to the rooms.
+     */
+
+    public void addRequest(CourseRequest request) {
+        requests.add(request);
+        request.rooms().forEach(this::addRoom);
+    }
+
+    /**
+     * Marks an instructor as unavailable at a day and start time.
+     *
+     * @return false if the calendar has no such day or time.
+     */
+
+    public boolean setUnavailable(String instructor, String day, String time) {
+        int dayIndex = calendar.dayOf(day);
+        int period = calendar.periodOf(time);
+        if (dayIndex < 0 || period < 0) {
+            return false;
+        }
+        unavailable.computeIfAbsent(instructor, key -> new BitSet()).set(fixed.cellOf(dayIndex, period));
+        return true;
+    }
+
+    public List<CourseRequest> getRequests() {
+        return List.copyOf(requests);
+    }
+
+    public List<String> getRooms() {
+        return List.copyOf(rooms.keySet());
+    }
+
+    public TermCalendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Turns the requests into variables with their initial domains.
+     */
+
+    Variables compile() {
+        List<String> roomNames = getRooms();
+        int roomCount = roomNames.size();
+        SlotDictionary dictionary = fixed.getDictionary();
+
+        // Free requests may use the displayed days, fixed ones only their own cell
+        BitSet displayCells = new BitSet();
+        for (String day : calendar.getDisplayDays()) {
+            int dayIndex = calendar.dayOf(day);
+            for (int period = 0; period < calendar.getPeriodCount(); period++) {
+                displayCells.set(fixed.cellOf(dayIndex, period));
+            }
+        }
+
+        BitSet[] roomBusy = new BitSet[roomCount];
+        for (int r = 0; r < roomCount; r++) {
+            int id = dictionary.find(roomNames.get(r));
+            roomBusy[r] = id < 0 ? new BitSet() : fixed.roomOccupancy(id);
+        }
+
+        // A fixed-time request keeps its cell for its instructor and course even
+        // if it gets no room, since its origin slot then stays in the schedule
+        Map<String, BitSet> reservedInstructors = new HashMap<>();
+        Map<String, BitSet> reservedCourses = new HashMap<>();
+        for (CourseRequest request : requests) {
+            int day = request.hasFixedTime() ? calendar.dayOf(request.day()) : -1;
+            int period = request.hasFixedTime() ? calendar.periodOf(request.time()) : -1;
+            if (day >= 0 && period >= 0) {
+                int cell = fixed.cellOf(day, period);
+                reservedInstructors.computeIfAbsent(request.instructor(), key -> new BitSet()).set(cell);
+                reservedCourses.computeIfAbsent(request.course(), key -> new BitSet()).set(cell);
+            }
+        }
+
+        List<CourseRequest> owners = new ArrayList<>();
+        List<BitSet> domains = new ArrayList<>();
+        for (CourseRequest request : requests) {
+            BitSet cells;
+            if (request.hasFixedTime()) {
+                cells = new BitSet();
+                int day = calendar.dayOf(request.day());
+                int period = calendar.periodOf(request.time());
+                if (day >= 0 && period >= 0) {
+                    cells.set(fixed.cellOf(day, period));
+                }
+            } else {
+                cells = (BitSet) displayCells.clone();
+                cells.andNot(reservedInstructors.getOrDefault(request.instructor(), new BitSet()));
+                cells.andNot(reservedCourses.getOrDefault(request.course(), new BitSet()));
+            }
+            int instructor = dictionary.find(request.instructor());
+            int course = dictionary.find(request.course());
+            if (instructor >= 0) {
+                cells.andNot(fixed.instructorOccupancy(instructor));
+            }
+            if (course >= 0) {
+                cells.andNot(fixed.courseOccupancy(course));
+            }
+            cells.andNot(unavailable.getOrDefault(request.instructor(), new BitSet()));
+
+            BitSet domain = new BitSet();
+            for (int r = 0; r < roomCount; r++) {
+                if (!request.rooms().isEmpty() && !request.rooms().contains(roomNames.get(r))) {
+                    continue;
+                }
+                for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+                    if (!roomBusy[r].get(cell)) {
+                        domain.set(cell * roomCount + r);
+                    }
+                }
+            }
+            for (int hour = 0; hour < request.hours(); hour++) {
+                owners.add(request);
+                domains.add(hour == 0 ? domain : (BitSet) domain.clone());
+            }
+        }
+        return new Variables(owners, domains, roomNames, calendar);
+    }
+
+    /**
+     * The compiled variables: one per requested hour.
+     */
+
+    static final class Variables {
+        final List<CourseRequest> owners;
+        final BitSet[] domains;
+        final List<String> roomNames;
+        final int roomCount;
+        final TermCalendar calendar;
+        // Variables that may not share a cell with each variable (same instructor or course)
+        final int[][] neighbours;
+
+        Variables(List<CourseRequest> owners, List<BitSet> domains, List<String> roomNames, TermCalendar calendar) {
+            this.owners = owners;
+            this.domains = domains.toArray(new BitSet[0]);
+            this.roomNames = roomNames;
+            this.roomCount = roomNames.size();
+            this.calendar = calendar;
+
+            Map<String, List<Integer>> byInstructor = new HashMap<>();
+            Map<String, List<Integer>> byCourse = new HashMap<>();
+            for (int i = 0; i < owners.size(); i++) {
+                byInstructor.computeIfAbsent(owners.get(i).instructor(), key -> new ArrayList<>()).add(i);
+                byCourse.computeIfAbsent(owners.get(i).course(), key -> new ArrayList<>()).add(i);
+            }
+            neighbours = new int[owners.size()][];
+            for (int i = 0; i < owners.size(); i++) {
+                BitSet related = new BitSet();
+                byInstructor.get(owners.get(i).instructor()).forEach(related::set);
+                byCourse.get(owners.get(i).course()).forEach(related::set);
+                related.clear(i);
+                neighbours[i] = related.stream().toArray();
+            }
+        }
+
+        int size() {
+            return owners.size();
+        }
+
+        /**
+         * Turns a value of a variable back into a slot.
+         */
+
+        Slot slotOf(int variable, int value) {
+            CourseRequest request = owners.get(variable);
+            int cell = value / roomCount;
+            int day = cell / calendar.getPeriodCount();
+            int period = cell % calendar.getPeriodCount();
+            return new Slot(calendar.getDay(day), calendar.startOf(period), request.course(),
+                            roomNames.get(value % roomCount), request.instructor(), TimetableSolver.SOURCE, 0);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package solver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import model.CompactSlot;
+import model.Slot;
+import model.SlotStore;
+import model.TermCalendar;
+import solver.TimetableProblem.Variables;
+
+/**
+ * Places requested course hours into free (day, period, room) cells.
+ *
+ * The search is a backtracking search over the hours of all requests. It
+ * always branches on the hour with the fewest values left (MRV), and after
+ * every assignment forward checking removes the values the assignment rules
+ * out: the same room at the same cell for every hour, and the whole cell for
+ * hours of the same instructor or course. An hour may also be left unplaced,
+ * so the search maximizes the number of placed hours and prunes branches that
+ * can't place more hours than the best assignment found so far.
+ *
+ * One search runs per core, each with its own random value order and with
+ * restarts after a growing number of nodes. They share the best assignment,
+ * stop as soon as one of them places every hour or proves that no better
+ * assignment exists, and return the best assignment when the time budget
+ * runs out.
+ */
+
+public class TimetableSolver {
+
+    /**
+     * Source of the slots the solver creates.
+     */
+
+    public static final String SOURCE = "solver";
+
+    private static final int UNASSIGNED = -1;
+    private static final int SKIPPED = -2;
+    private static final long FIRST_RESTART = 1_000;
+
+    private final int threads;
+
+    /**
+     * Creates a solver that uses every available core.
+     */
+
+    public TimetableSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a solver that runs the given number of searches in parallel.
+     */
+
+    public TimetableSolver(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Searches for an assignment that places as many requested hours as possible.
+     *
+     * @param problem The fixed slots, rooms and requests.
+     * @param budget  How long to search at most.
+     * @return the best assignment found within the budget.
+     */
+
+    public SolverResult solve(TimetableProblem problem, Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        Variables variables = problem.compile();
+        Shared shared = new Shared(variables.size());
+
+        if (variables.size() > 0) {
+            try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+                for (int worker = 0; worker < threads; worker++) {
+                    long seed = worker;
+                    executor.execute(() -> new Search(variables, shared, deadline, seed).run());
+                }
+            }
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return result(variables, shared, millis);
+    }
+
+    private static SolverResult result(Variables variables, Shared shared, long millis) {
+        int[] best = shared.best != null ? shared.best : new int[0];
+        List<Slot> placed = new ArrayList<>();
+        List<Slot> replaced = new ArrayList<>();
+        Map<CourseRequest, Integer> missing = new LinkedHashMap<>();
+        for (int i = 0; i < variables.size(); i++) {
+            CourseRequest request = variables.owners.get(i);
+            if (i < best.length && best[i] >= 0) {
+                placed.add(variables.slotOf(i, best[i]));
+                if (request.origin() != null) {
+                    replaced.add(request.origin());
+                }
+            } else {
+                missing.merge(request, 1, Integer::sum);
+            }
+        }
+        List<CourseRequest> unplaced = new ArrayList<>();
+        missing.forEach((request, hours) -> unplaced.add(request.withHours(hours)));
+
+        // Origins of unplaced requests stay in the schedule next to the placed slots
+        List<Slot> kept = new ArrayList<>(placed);
+        unplaced.stream().map(CourseRequest::origin).filter(Objects::nonNull).forEach(kept::add);
+        checkConflicts(kept, variables.calendar);
+        return new SolverResult(placed, replaced, unplaced, unplaced.isEmpty(), shared.proven,
+                                shared.nodes.sum(), millis);
+    }
+
+    /**
+     * Checks that no two of the slots share a room, instructor or course at the
+     * same day and period.
+     *
+     * @throws IllegalStateException if two of the slots conflict.
+     */
+
+    private static void checkConflicts(List<Slot> slots, TermCalendar calendar) {
+        SlotStore store = new SlotStore(calendar);
+        for (Slot slot : slots) {
+            CompactSlot compact = CompactSlot.of(slot, store.getDictionary(), calendar);
+            if (compact == null) {
+                continue;
+            }
+            if (store.conflicts(compact)) {
+                throw new IllegalStateException("Solver result double books " + slot.getCourseCode() + " at "
+                                                + slot.getDay() + " " + slot.getTime());
+            }
+            store.add(compact);
+        }
+    }
+
+    /**
+     * State shared by the parallel searches.
+     */
+
+    private static final class Shared {
+        final int size;
+        final LongAdder nodes = new LongAdder();
+        volatile int bestPlaced = -1;
+        volatile int[] best;
+        volatile boolean done;
+        volatile boolean proven;
+
+        Shared(int size) {
+            this.size = size;
+        }
+
+        synchronized void offer(int[] assignment, int placed) {
+            if (placed > bestPlaced) {
+                best = assignment.clone();
+                bestPlaced = placed;
+                if (placed == size) {
+                    done = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * One randomized backtracking search with restarts.
+     */
+
+    private static final class Search {
+        private final Variables variables;
+        private final Shared shared;
+        private final long deadline;
+        private final Random random;
+        private final boolean shuffle;
+        private final int size;
+        private final int roomCount;
+        private final int valueCount;
+        private final BitSet[] domains;
+        private final int[] assignment;
+
+        // Values removed by forward checking, as (variable, value) pairs
+        private int[] trailVariables = new int[256];
+        private int[] trailValues = new int[256];
+        private int trailSize;
+
+        private int placed;
+        private long nodes;
+        private long limit;
+
+        Search(Variables variables, Shared shared, long deadline, long seed) {
+            this.variables = variables;
+            this.shared = shared;
+            this.deadline = deadline;
+            this.random = new Random(seed);
+            this.shuffle = seed != 0;
+            this.size = variables.size();
+            this.roomCount = variables.roomCount;
+            this.valueCount = variables.calendar.getDayCount() * variables.calendar.getPeriodCount() * roomCount;
+            this.domains = new BitSet[size];
+            this.assignment = new int[size];
+        }
+
+        void run() {
+            limit = FIRST_RESTART;
+            while (!shared.done && System.nanoTime() < deadline) {
+                for (int i = 0; i < size; i++) {
+                    domains[i] = (BitSet) variables.domains[i].clone();
+                }
+                Arrays.fill(assignment, UNASSIGNED);
+                trailSize = 0;
+                placed = 0;
+                nodes = 0;
+
+                boolean exhausted = search();
+                shared.nodes.add(nodes);
+                if (exhausted) {
+                    // Every branch was visited or pruned, so the best assignment can't be improved
+                    shared.proven = true;
+                    shared.done = true;
+                    return;
+                }
+                limit *= 2;
+            }
+        }
+
+        /**
+         * @return true if the subtree was searched completely, false if the
+         *         search stopped because of a restart, the budget or another worker.
+         */
+
+        private boolean search() {
+            if (shared.done || ++nodes > limit || ((nodes & 0xFF) == 0 && System.nanoTime() > deadline)) {
+                return false;
+            }
+
+            // Pick the open hour with the fewest values; hours without values can only stay unplaced
+            int variable = -1;
+            int smallest = Integer.MAX_VALUE;
+            int open = 0;
+            int ties = 0;
+            for (int i = 0; i < size; i++) {
+                if (assignment[i] != UNASSIGNED || domains[i].isEmpty()) {
+                    continue;
+                }
+                open++;
+                int count = domains[i].cardinality();
+                if (count < smallest) {
+                    variable = i;
+                    smallest = count;
+                    ties = 1;
+                } else if (count == smallest && shuffle && random.nextInt(++ties) == 0) {
+                    variable = i;
+                }
+            }
+
+            if (placed + open <= shared.bestPlaced) {
+                return true;
+            }
+            if (variable < 0) {
+                shared.offer(assignmentWithSkips(), placed);
+                return true;
+            }
+
+            int[] values = domains[variable].stream().toArray();
+            if (shuffle) {
+                for (int i = values.length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int value = values[i];
+                    values[i] = values[j];
+                    values[j] = value;
+                }
+            }
+
+            for (int value : values) {
+                int mark = trailSize;
+                assignment[variable] = value;
+                placed++;
+                propagate(variable, value);
+
+                boolean complete = search();
+
+                undo(mark);
+                placed--;
+                assignment[variable] = UNASSIGNED;
+                if (!complete) {
+                    return false;
+                }
+            }
+
+            // Leave the hour unplaced
+            assignment[variable] = SKIPPED;
+            boolean complete = search();
+            assignment[variable] = UNASSIGNED;
+            return complete;
+        }
+
+        private void propagate(int variable, int value) {
+            int cell = value / roomCount;
+            for (int other = 0; other < size; other++) {
+                if (assignment[other] == UNASSIGNED) {
+                    remove(other, value, value + 1);
+                }
+            }
+            CourseRequest request = variables.owners.get(variable);
+            for (int other : variables.neighbours[variable]) {
+                if (assignment[other] != UNASSIGNED) {
+                    continue;
+                }
+                remove(other, cell * roomCount, (cell + 1) * roomCount);
+                // Hours of one request are interchangeable, so keep their values in increasing order
+                if (variables.owners.get(other) == request) {
+                    if (other > variable) {
+                        remove(other, 0, value + 1);
+                    } else {
+                        remove(other, value, valueCount);
+                    }
+                }
+            }
+        }
+
+        private void remove(int variable, int from, int to) {
+            BitSet domain = domains[variable];
+            for (int value = domain.nextSetBit(from); value >= 0 && value < to; value = domain.nextSetBit(value + 1)) {
+                domain.clear(value);
+                if (trailSize == trailVariables.length) {
+                    trailVariables = Arrays.copyOf(trailVariables, trailSize * 2);
+                    trailValues = Arrays.copyOf(trailValues, trailSize * 2);
+                }
+                trailVariables[trailSize] = variable;
+                trailValues[trailSize] = value;
+                trailSize++;
+            }
+        }
+
+        private void undo(int mark) {
+            while (trailSize > mark) {
+                trailSize--;
+                domains[trailVariables[trailSize]].set(trailValues[trailSize]);
+            }
+        }
+
+        private int[] assignmentWithSkips() {
+            int[] result = assignment.clone();
+            for (int i = 0; i < size; i++) {
+                if (result[i] < 0) {
+                    result[i] = SKIPPED;
+                }
+            }
+            return result;
+        }
+    }
+}
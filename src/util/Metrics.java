@@ -0,0 +1,306 @@
+package util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide registry of counters, gauges and latency histograms.
+ *
+ * Metrics are created on first use and identified by a name plus optional
+ * label pairs, e.g. counter("slots_rejected_total", "reason", "room").
+ * Counters and histograms are backed by LongAdders, so recording from the
+ * SlotLoader worker threads does not contend on a lock.
+ *
+ * The registry can be written as Prometheus text format or as JSON, and
+ * text() gives a short human-readable listing for the UI.
+ */
+
+public class Metrics {
+
+    // Upper bounds of the histogram buckets in seconds
+    private static final double[] BOUNDS = {0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10};
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    /**
+     * Returns the counter with the given name and labels, creating it if needed.
+     *
+     * @param name   Metric name, e.g. "files_parsed_total".
+     * @param labels Label names and values, alternating.
+     */
+
+    public static Counter counter(String name, String... labels) {
+        return counters.computeIfAbsent(key(name, labels), key -> new Counter(name, labelText(labels)));
+    }
+
+    /**
+     * Returns the latency histogram with the given name and labels, creating it if needed.
+     */
+
+    public static Histogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(key(name, labels), key -> new Histogram(name, labelText(labels)));
+    }
+
+    /**
+     * Registers a gauge whose value is computed when the metrics are read,
+     * replacing a gauge with the same name.
+     */
+
+    public static void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, new Gauge(name, value));
+    }
+
+    /**
+     * Resets all counters and histograms. Gauges stay registered.
+     */
+
+    public static void reset() {
+        counters.values().forEach(counter -> counter.value.reset());
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * A monotonically increasing count.
+     */
+
+    public static final class Counter {
+        private final String name;
+        private final String labels;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Distribution of durations, with fixed buckets from 100 µs to 10 s.
+     */
+
+    public static final class Histogram {
+        private final String name;
+        private final String labels;
+        private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Histogram(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records the time since start, where start was taken from System.nanoTime().
+         */
+
+        public void recordSince(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        /**
+         * Records a duration in nanoseconds.
+         */
+
+        public void record(long nanos) {
+            double seconds = nanos / 1e9;
+            int bucket = 0;
+            while (bucket < BOUNDS.length && seconds > BOUNDS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            sumNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getSumSeconds() {
+            return sumNanos.sum() / 1e9;
+        }
+
+        public double getMaxSeconds() {
+            return maxNanos.get() / 1e9;
+        }
+
+        private void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sumNanos.reset();
+            maxNanos.reset();
+        }
+    }
+
+    private record Gauge(String name, DoubleSupplier value) {}
+
+    /**
+     * Returns the metrics in Prometheus text exposition format.
+     */
+
+    public static String prometheus() {
+        StringBuilder out = new StringBuilder();
+        String lastName = null;
+        for (Counter counter : sorted(counters)) {
+            if (!counter.name.equals(lastName)) {
+                out.append("# TYPE ").append(counter.name).append(" counter\n");
+                lastName = counter.name;
+            }
+            out.append(counter.name).append(braces(counter.labels)).append(' ').append(counter.get()).append('\n');
+        }
+        for (Gauge gauge : sorted(gauges)) {
+            out.append("# TYPE ").append(gauge.name).append(" gauge\n");
+            out.append(gauge.name).append(' ').append(number(gauge.value.getAsDouble())).append('\n');
+        }
+        lastName = null;
+        for (Histogram histogram : sorted(histograms)) {
+            if (!histogram.name.equals(lastName)) {
+                out.append("# TYPE ").append(histogram.name).append(" histogram\n");
+                lastName = histogram.name;
+            }
+            String prefix = histogram.labels.isEmpty() ? "" : histogram.labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i < histogram.buckets.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                String bound = i < BOUNDS.length ? number(BOUNDS[i]) : "+Inf";
+                out.append(histogram.name).append("_bucket{").append(prefix).append("le=\"").append(bound).append("\"} ")
+                   .append(cumulative).append('\n');
+            }
+            out.append(histogram.name).append("_sum").append(braces(histogram.labels)).append(' ')
+               .append(number(histogram.getSumSeconds())).append('\n');
+            out.append(histogram.name).append("_count").append(braces(histogram.labels)).append(' ')
+               .append(histogram.getCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Returns the metrics as a JSON object with "counters", "gauges" and
+     * "histograms" arrays.
+     */
+
+    public static String json() {
+        StringBuilder out = new StringBuilder("{\n  \"counters\": [");
+        List<String> items = new ArrayList<>();
+        for (Counter counter : sorted(counters)) {
+            items.add("\n    {\"name\": \"" + counter.name + "\", \"labels\": {" + jsonLabels(counter.labels)
+                      + "}, \"value\": " + counter.get() + "}");
+        }
+        out.append(String.join(",", items)).append("\n  ],\n  \"gauges\": [");
+        items.clear();
+        for (Gauge gauge : sorted(gauges)) {
+            items.add("\n    {\"name\": \"" + gauge.name + "\", \"value\": " + number(gauge.value.getAsDouble()) + "}");
+        }
+        out.append(String.join(",", items)).append("\n  ],\n  \"histograms\": [");
+        items.clear();
+        for (Histogram histogram : sorted(histograms)) {
+            items.add("\n    {\"name\": \"" + histogram.name + "\", \"labels\": {" + jsonLabels(histogram.labels)
+                      + "}, \"count\": " + histogram.getCount()
+                      + ", \"sumSeconds\": " + number(histogram.getSumSeconds())
+                      + ", \"maxSeconds\": " + number(histogram.getMaxSeconds()) + "}");
+        }
+        out.append(String.join(",", items)).append("\n  ]\n}\n");
+        return out.toString();
+    }
+
+    /**
+     * Returns one line per metric, e.g. "parse_seconds count=6 avg=0.412 ms max=1.020 ms".
+     */
+
+    public static String text() {
+        StringBuilder out = new StringBuilder();
+        for (Counter counter : sorted(counters)) {
+            out.append(counter.name).append(braces(counter.labels)).append(" = ").append(counter.get()).append('\n');
+        }
+        for (Gauge gauge : sorted(gauges)) {
+            out.append(gauge.name).append(" = ").append(String.format(Locale.ROOT, "%.1f", gauge.value.getAsDouble())).append('\n');
+        }
+        for (Histogram histogram : sorted(histograms)) {
+            long count = histogram.getCount();
+            double average = count == 0 ? 0 : histogram.getSumSeconds() / count;
+            out.append(histogram.name).append(braces(histogram.labels))
+               .append(String.format(Locale.ROOT, " count=%d avg=%.3f ms max=%.3f ms%n", count,
+                                     average * 1000, histogram.getMaxSeconds() * 1000));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the metrics to a file: JSON if the file name ends with .json,
+     * Prometheus text format otherwise.
+     */
+
+    public static void write(Path path) throws IOException {
+        boolean json = path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            writer.print(json ? json() : prometheus());
+        }
+        System.out.println("Metrics file " + path.getFileName() + " created successfully.");
+    }
+
+    private static String key(String name, String[] labels) {
+        return labels.length == 0 ? name : name + "{" + labelText(labels) + "}";
+    }
+
+    private static String labelText(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        List<String> pairs = new ArrayList<>();
+        for (int i = 0; i < labels.length; i += 2) {
+            pairs.add(labels[i] + "=\"" + labels[i + 1] + "\"");
+        }
+        return String.join(",", pairs);
+    }
+
+    private static String jsonLabels(String labels) {
+        return labels.isEmpty() ? "" : labels.replaceAll("(\\w+)=\"", "\"$1\": \"").replace(",", ", ");
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.valueOf(value) : "0";
+    }
+
+    private static <T> List<T> sorted(Map<String, T> metrics) {
+        return metrics.entrySet().stream().sorted(Map.Entry.comparingByKey()).map(Map.Entry::getValue).toList();
+    }
+}
@@ -0,0 +1,94 @@
+package util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import solver.CourseRequest;
+import solver.TimetableProblem;
+
+/**
+ * Utility class for reading the input files of the timetable solver.
+ *
+ * Course requests are given one per line as
+ * courseCode;instructor;hours[;room,room,...]
+ * and instructor unavailability one per line as
+ * instructor;day;time
+ * Empty lines and lines starting with # are skipped. Malformed lines are
+ * reported with their file and line number.
+ */
+
+public class ParseRequests {
+
+    /**
+     * Reads course requests from a file.
+     *
+     * @param path Path to the requests file.
+     * @return the requests, or an empty list if the file can't be read.
+     */
+
+    public static List<CourseRequest> parse(Path path) {
+        List<CourseRequest> requests = new ArrayList<>();
+        List<String> lines = read(path);
+        for (int i = 0; i < lines.size(); i++) {
+            String[] features = fields(lines.get(i));
+            if (features == null) {
+                continue;
+            }
+            try {
+                List<String> rooms = features.length > 3
+                    ? Arrays.stream(features[3].split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList()
+                    : List.of();
+                requests.add(CourseRequest.of(features[0], features[1], Integer.parseInt(features[2]), rooms));
+            } catch (RuntimeException e) {
+                malformed(path, i + 1, "courseCode;instructor;hours[;rooms]");
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * Reads instructor unavailability from a file into a problem.
+     *
+     * @param path    Path to the unavailability file.
+     * @param problem The problem to mark the instructors unavailable in.
+     */
+
+    public static void parseUnavailable(Path path, TimetableProblem problem) {
+        List<String> lines = read(path);
+        for (int i = 0; i < lines.size(); i++) {
+            String[] features = fields(lines.get(i));
+            if (features != null && (features.length < 3 || !problem.setUnavailable(features[0], features[1], features[2]))) {
+                malformed(path, i + 1, "instructor;day;time");
+            }
+        }
+    }
+
+    private static List<String> read(Path path) {
+        try {
+            return Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            System.err.println("File in " + path + " couldn't be found");
+        } catch (IOException e) {
+            System.err.println("There was an error during reading the file " + e.getLocalizedMessage());
+        }
+        return List.of();
+    }
+
+    private static String[] fields(String line) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        return Arrays.stream(trimmed.split(";")).map(String::trim).toArray(String[]::new);
+    }
+
+    private static void malformed(Path path, int line, String format) {
+        System.err.println("Line " + line + " of " + path.getFileName() + " is malformed, expected " + format);
+    }
+}
@@ -1,54 +1,301 @@
 package util;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import model.ConflictReport;
 import model.Slot;
+import model.SlotDictionary;
 
 /**
  * Utility class for parsing instructor schedule data from .txt files.
  * Each line in the file is expected to follow the format:
  * day;time;courseCode;room
  * The instructor's name is inferred from the filename.
+ *
+ * Files are read as UTF-8 through a FileChannel (memory-mapped when they are
+ * large) and split on ';' by scanning the bytes, without String.split or a
+ * String per line. A small per-file cache maps repeated byte sequences to the
+ * string decoded the first time, so every slot of a file shares one copy of
+ * each day, time, course and room, and one instructor name. If a pool is
+ * given, new strings are interned through it, so files parsed with the same
+ * pool also share their strings. Malformed lines are recorded in a
+ * ConflictReport with their file and line number and skipped.
  */
 
 public class ParseTxt {
-    
+
+    private static final int FIELDS = 4;
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    private static final Metrics.Counter FILES_PARSED = Metrics.counter("files_parsed_total");
+    private static final Metrics.Counter LINES_PARSED = Metrics.counter("lines_parsed_total");
+    private static final Metrics.Histogram PARSE_TIME = Metrics.histogram("parse_seconds");
+
+    static {
+        // Lines per second of parsing time, summed over all files
+        Metrics.gauge("parse_lines_per_second", () -> LINES_PARSED.get() / Math.max(PARSE_TIME.getSumSeconds(), 1e-9));
+    }
+
     /**
      * Parses a .txt file into a list of Slot objects.
      *
      * @param path Path to the input .txt file.
      * @return List of parsed Slot objects, or null if an error occurs.
      */
-    
+
     public static List<Slot> parse(String path){
-        try {
-            try(BufferedReader bufferedReader = new BufferedReader(new FileReader(path))){
-                Path fileName = Paths.get(path).getFileName();
-                String instructor = fileName.toString().split("\\.")[0];
-                String line;
-                List<Slot> extractedSlots = new ArrayList<Slot>();
-                
-                while((line = bufferedReader.readLine()) != null){
-                    String[] features = line.split(";");
-                    extractedSlots.add(new Slot(features[0], features[1], features[2], features[3], instructor));
-                }
-                return extractedSlots;
-            }
-            
-        }
-        catch (FileNotFoundException e) {
+        return parse(path, new ConflictReport());
+    }
+
+    /**
+     * Parses a .txt file into a list of Slot objects. Each slot remembers the
+     * file name and line it was read from.
+     *
+     * @param path   Path to the input .txt file.
+     * @param report The report malformed lines are added to.
+     * @return List of parsed Slot objects, or null if an error occurs.
+     */
+
+    public static List<Slot> parse(String path, ConflictReport report){
+        return parse(path, report, null);
+    }
+
+    /**
+     * Parses a .txt file into a list of Slot objects whose strings are
+     * interned through the given pool.
+     *
+     * @param path   Path to the input .txt file.
+     * @param report The report malformed lines are added to.
+     * @param pool   Pool shared by the files of one load, or null to share strings within the file only.
+     * @return List of parsed Slot objects, or null if an error occurs.
+     */
+
+    public static List<Slot> parse(String path, ConflictReport report, SlotDictionary pool){
+        long start = System.nanoTime();
+        Path file = Paths.get(path);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            String fileName = file.getFileName().toString();
+            String instructor = fileName.split("\\.")[0];
+            if (pool != null) {
+                instructor = pool.intern(instructor);
+            }
+
+            long size = channel.size();
+            ByteBuffer buffer;
+            if (size > MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the file is consumed
+                }
+                buffer.flip();
+            }
+            Scanner scanner = new Scanner(fileName, instructor, report, pool);
+            List<Slot> extractedSlots = scanner.scan(buffer);
+
+            FILES_PARSED.increment();
+            LINES_PARSED.add(scanner.lines);
+            PARSE_TIME.recordSince(start);
+            return extractedSlots;
+        }
+        catch (NoSuchFileException e) {
             System.err.println("File in " + path + " couldn't be found");
         } catch (IOException e) {
             System.err.println("There was an error during reading the file " + e.getLocalizedMessage());
         }
         return null;
-        
+    }
+
+    /**
+     * Splits the bytes of one file into lines and fields.
+     */
+
+    private static class Scanner {
+        private final String fileName;
+        private final String instructor;
+        private final FieldCache cache;
+        private final ConflictReport report;
+        private byte[] line = new byte[256];
+        private final int[] starts = new int[FIELDS];
+        private final int[] ends = new int[FIELDS];
+        private int lines;
+
+        Scanner(String fileName, String instructor, ConflictReport report, SlotDictionary pool) {
+            this.fileName = fileName;
+            this.instructor = instructor;
+            this.cache = new FieldCache(pool);
+            this.report = report;
+        }
+
+        List<Slot> scan(ByteBuffer buffer) {
+            List<Slot> extractedSlots = new ArrayList<>();
+            int position = buffer.position();
+            int limit = buffer.limit();
+
+            // Skip a UTF-8 byte order mark
+            if (limit - position >= 3 && (buffer.get(position) & 0xFF) == 0xEF
+                    && (buffer.get(position + 1) & 0xFF) == 0xBB && (buffer.get(position + 2) & 0xFF) == 0xBF) {
+                position += 3;
+            }
+
+            int lineNumber = 0;
+            while (position < limit) {
+                int end = position;
+                while (end < limit && buffer.get(end) != '\n') {
+                    end++;
+                }
+                lineNumber++;
+
+                int length = end - position;
+                if (length > 0 && buffer.get(end - 1) == '\r') {
+                    length--;
+                }
+                if (length > line.length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                buffer.get(position, line, 0, length);
+
+                Slot slot = parseLine(length, lineNumber);
+                if (slot != null) {
+                    extractedSlots.add(slot);
+                }
+                position = end + 1;
+            }
+            lines = lineNumber;
+            return extractedSlots;
+        }
+
+        /**
+         * Parses the first length bytes of the line buffer. Like the previous
+         * String.split based parser, trailing empty fields are ignored and any
+         * fields after the room are dropped.
+         *
+         * @return the slot, or null if the line is blank or malformed.
+         */
+
+        private Slot parseLine(int length, int lineNumber) {
+            if (isBlank(length)) {
+                return null;
+            }
+
+            int fields = 0;
+            int start = 0;
+            for (int i = 0; i <= length && fields < FIELDS; i++) {
+                if (i == length || line[i] == ';') {
+                    starts[fields] = start;
+                    ends[fields] = i;
+                    fields++;
+                    start = i + 1;
+                }
+            }
+
+            // A missing or empty room only counts if something non-empty follows it
+            boolean roomPresent = fields == FIELDS
+                && (ends[3] > starts[3] || hasContentAfter(ends[3], length));
+            if (!roomPresent) {
+                report.malformed(fileName, lineNumber, new String(line, 0, length, StandardCharsets.UTF_8));
+                return null;
+            }
+
+            return new Slot(cache.get(line, starts[0], ends[0]), cache.get(line, starts[1], ends[1]),
+                            cache.get(line, starts[2], ends[2]), cache.get(line, starts[3], ends[3]),
+                            instructor, fileName, lineNumber);
+        }
+
+        private boolean isBlank(int length) {
+            for (int i = 0; i < length; i++) {
+                if (line[i] != ' ' && line[i] != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasContentAfter(int index, int length) {
+            for (int i = index; i < length; i++) {
+                if (line[i] != ';') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Open-addressing cache from byte sequences to strings. A field
+     * that was seen before in the same file is found by comparing bytes, so it
+     * is neither decoded nor allocated again. A field seen for the first time
+     * is interned through the pool, if there is one.
+     */
+
+    private static class FieldCache {
+        private final SlotDictionary pool;
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int size;
+
+        FieldCache(SlotDictionary pool) {
+            this.pool = pool;
+        }
+
+        String get(byte[] bytes, int from, int to) {
+            int hash = 1;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (keys[index] != null) {
+                if (Arrays.equals(keys[index], 0, keys[index].length, bytes, from, to)) {
+                    return values[index];
+                }
+                index = (index + 1) & mask;
+            }
+
+            String value = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+            if (pool != null) {
+                value = pool.intern(value);
+            }
+            keys[index] = Arrays.copyOfRange(bytes, from, to);
+            values[index] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return value;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int hash = 1;
+                    for (byte b : oldKeys[i]) {
+                        hash = 31 * hash + b;
+                    }
+                    int index = hash & mask;
+                    while (keys[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
     }
 }
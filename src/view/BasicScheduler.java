@@ -1,6 +1,12 @@
 package view;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 
+import model.ScheduleGrid;
+import model.ScheduleViews;
 import model.Slot;
 
 /**
@@ -12,13 +18,43 @@ import model.Slot;
 
 public interface BasicScheduler {
 
+    /**
+     * Directory the generated files are written to unless another one is given.
+     */
+
+    public static final Path OUTPUT_DIR = Paths.get("resources", "output");
+
     /**
      * Abstract method to be implemented by subclasses to generate schedules.
      * 
      * @param days       List of days (e.g., Monday to Friday)
      * @param timeSlots  List of time slots in the schedule (e.g., 08:45–09:30)
-     * @param slots      List of Slot objects representing scheduled courses
+     * @param slots      List of Slot objects representing scheduled courses;
+     *                   implementations only read it, so it may be immutable
+     * @throws IOException if the file could not be written; it is then not announced
+     */
+
+    public void generateSchedule(String[] days, String[] timeSlots, List<Slot> slots) throws IOException;
+
+    /**
+     * Abstract method to be implemented by subclasses to write the timetable of
+     * every instructor, room and course into a single output file, one
+     * sheet or page per timetable.
+     *
+     * @param views      Per-entity timetables of the schedule
+     * @throws IOException if the file could not be written; it is then not announced
+     */
+
+    public void generateBatch(ScheduleViews views) throws IOException;
+
+    /**
+     * Writes a single timetable, headed by its title, to a stream instead of a
+     * file, e.g. to send it over HTTP. The stream is left open.
+     *
+     * @param title      Title of the timetable, e.g. "Instructor: AYigit"
+     * @param grid       The timetable to write
+     * @param out        Stream the document is written to
      */
 
-    public void generateSchedule(String[] days, String[] timeSlots, List<Slot> slots);
+    public void writeTimetable(String title, ScheduleGrid grid, OutputStream out) throws IOException;
 }
\ No newline at end of file
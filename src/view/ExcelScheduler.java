@@ -1,19 +1,123 @@
 package view;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
+import model.ScheduleGrid;
+import model.ScheduleViews;
 import model.Slot;
+import util.Metrics;
 
 /**
  * Concrete Strategy that generates a weekly course schedule in Excel format (.xlsx).
- * 
+ *
  * Implements the generateSchedule method to write the provided schedule data into a spreadsheet.
+ * In streaming mode the workbook is written through POI's SXSSF, which keeps only a
+ * bounded window of rows in memory and spills the rest to temporary files.
  */
 
 public class ExcelScheduler implements BasicScheduler{
 
+    /**
+     * Number of rows SXSSF keeps in memory per sheet in streaming mode.
+     */
+
+    private static final int ROW_WINDOW = 100;
+
+    private final boolean streaming;
+    private final Path outputDir;
+    private final int threads;
+
+    /**
+     * Creates an Excel scheduler that builds the whole workbook in memory.
+     */
+
+    public ExcelScheduler(){
+        this(false);
+    }
+
+    /**
+     * Creates an Excel scheduler that writes to the default output directory.
+     *
+     * @param streaming true to write the workbook with SXSSF and a bounded row window
+     */
+
+    public ExcelScheduler(boolean streaming){
+        this(streaming, OUTPUT_DIR);
+    }
+
+    /**
+     * Creates an Excel scheduler that writes on the calling thread.
+     *
+     * @param streaming true to write the workbook with SXSSF and a bounded row window
+     * @param outputDir directory the .xlsx files are written to
+     */
+
+    public ExcelScheduler(boolean streaming, Path outputDir){
+        this(streaming, outputDir, 1);
+    }
+
+    /**
+     * Creates an Excel scheduler.
+     *
+     * @param streaming true to write the workbook with SXSSF and a bounded row window
+     * @param outputDir directory the .xlsx files are written to
+     * @param threads   number of threads generateBatch fills the sheets on; only
+     *                  used in streaming mode
+     */
+
+    public ExcelScheduler(boolean streaming, Path outputDir, int threads){
+        this.streaming = streaming;
+        this.outputDir = outputDir;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Cell styles of a workbook. They are created once per workbook and shared
+     * by all of its sheets, since every style counts against the workbook's style table.
+     */
+
+    protected record Styles(CellStyle header, CellStyle cell) {
+
+        static Styles create(Workbook workbook){
+            CellStyle headerStyle = workbook.createCellStyle();
+            headerStyle.setFillForegroundColor(IndexedColors.CORAL.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            headerStyle.setAlignment(HorizontalAlignment.CENTER);
+            headerStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+
+            CellStyle cellStyle = workbook.createCellStyle();
+            cellStyle.setWrapText(true);
+            cellStyle.setAlignment(HorizontalAlignment.CENTER);
+            cellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+
+            Font font = workbook.createFont();
+            font.setFontName("Arial");
+            font.setColor(IndexedColors.WHITE.getIndex());
+            font.setFontHeightInPoints((short) 16);
+            font.setBold(true);
+            headerStyle.setFont(font);
+
+            return new Styles(headerStyle, cellStyle);
+        }
+    }
+
     /**
      * Generates an Excel file named "schedule.xlsx" with the given schedule.
      *
@@ -23,91 +127,230 @@ public class ExcelScheduler implements BasicScheduler{
      */
 
     @Override
-    public void generateSchedule(String[] days, String[] timeSlots, List<Slot> slots) {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("schedule");
+    public void generateSchedule(String[] days, String[] timeSlots, List<Slot> slots) throws IOException {
+        long start = System.nanoTime();
+        Workbook workbook = createWorkbook();
+        try {
+            Styles styles = Styles.create(workbook);
+            Sheet sheet = writeSheet(workbook, styles, "schedule", new ScheduleGrid(days, timeSlots, slots));
+            save(workbook, outputDir.resolve("schedule.xlsx"), sheet.getSheetName() + ".xlsx");
+        } finally {
+            release(workbook);
+        }
+        Metrics.histogram("export_seconds", "format", "excel", "kind", "schedule").recordSince(start);
+    }
 
-        Row header = sheet.createRow(0);
+    /**
+     * Generates an Excel file named "timetables.xlsx" with one sheet per instructor,
+     * room and course, in that order. All sheets share the workbook's styles.
+     *
+     * In streaming mode with more than one thread, the sheets are created in
+     * order first and then filled on the worker threads, each thread taking a
+     * contiguous part of them. A streaming sheet keeps its rows in its own
+     * temporary file and strings inline, so filling different sheets at the
+     * same time is safe. Writing the .xlsx package stays on the calling thread.
+     *
+     * @param views      Per-entity timetables of the schedule
+     */
+
+    @Override
+    public void generateBatch(ScheduleViews views) throws IOException {
+        long start = System.nanoTime();
+        Workbook workbook = createWorkbook();
+        try {
+            Styles styles = Styles.create(workbook);
+            Set<String> sheetNames = new HashSet<>();
+
+            List<Sheet> sheets = new ArrayList<>();
+            List<ScheduleGrid> grids = new ArrayList<>();
+            for(ScheduleViews.Kind kind : ScheduleViews.Kind.values()){
+                for(Map.Entry<String, ScheduleGrid> view : views.get(kind).entrySet()){
+                    sheets.add(workbook.createSheet(sheetName(kind.getLabel() + " " + view.getKey(), sheetNames)));
+                    grids.add(view.getValue());
+                }
+            }
+            if(workbook instanceof SXSSFWorkbook && threads > 1 && sheets.size() > 1){
+                fillParts(sheets, grids, styles);
+            }
+            else{
+                for(int i = 0; i < sheets.size(); i++){
+                    fillSheet(sheets.get(i), styles, grids.get(i));
+                }
+            }
+            save(workbook, outputDir.resolve("timetables.xlsx"), "timetables.xlsx");
+        } finally {
+            release(workbook);
+        }
+        Metrics.histogram("export_seconds", "format", "excel", "kind", "batch").recordSince(start);
+    }
+
+    /**
+     * Fills the sheets on the worker threads, one contiguous part of them per
+     * thread. If any part fails, the failure is rethrown, so generateBatch
+     * doesn't save a workbook with empty sheets.
+     */
 
-        CellStyle headerStyle = workbook.createCellStyle();
-        headerStyle.setFillForegroundColor(IndexedColors.CORAL.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        headerStyle.setAlignment(HorizontalAlignment.CENTER);     
-        headerStyle.setVerticalAlignment(VerticalAlignment.CENTER); 
+    private void fillParts(List<Sheet> sheets, List<ScheduleGrid> grids, Styles styles) throws IOException {
+        int parts = Math.min(threads, sheets.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(parts)) {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for(int p = 0; p < parts; p++){
+                int from = p * sheets.size() / parts;
+                int to = (p + 1) * sheets.size() / parts;
+                tasks.add(() -> {
+                    for(int i = from; i < to; i++){
+                        fillSheet(sheets.get(i), styles, grids.get(i));
+                    }
+                    return null;
+                });
+            }
+            for(Future<Void> result : executor.invokeAll(tasks)){
+                result.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Filling the sheets was interrupted", e);
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Could not fill the sheets", e.getCause());
+        }
+    }
 
-        CellStyle cellStyle = workbook.createCellStyle();
-        cellStyle.setWrapText(true);
-        cellStyle.setAlignment(HorizontalAlignment.CENTER);     
-        cellStyle.setVerticalAlignment(VerticalAlignment.CENTER); 
+    /**
+     * Writes one timetable as a workbook with a single sheet to the stream.
+     */
 
-        XSSFFont font = ((XSSFWorkbook) workbook).createFont();
-        font.setFontName("Arial");
-        font.setColor(IndexedColors.WHITE.getIndex());
-        font.setFontHeightInPoints((short) 16);
-        font.setBold(true);
-        headerStyle.setFont(font);
+    @Override
+    public void writeTimetable(String title, ScheduleGrid grid, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Workbook workbook = createWorkbook();
+        try {
+            writeSheet(workbook, Styles.create(workbook), sheetName(title, new HashSet<>()), grid);
+            workbook.write(out);
+        } finally {
+            release(workbook);
+        }
+        Metrics.histogram("export_seconds", "format", "excel", "kind", "timetable").recordSince(start);
+    }
+
+    /**
+     * Turns a title into a valid sheet name that is not used yet. Sheet names are
+     * limited to 31 characters and compared case-insensitively by Excel.
+     */
+
+    private static String sheetName(String title, Set<String> usedNames){
+        String base = WorkbookUtil.createSafeSheetName(title);
+        String name = base;
+        for(int i = 2; !usedNames.add(name.toLowerCase(Locale.ROOT)); i++){
+            String suffix = " (" + i + ")";
+            name = base.substring(0, Math.min(base.length(), 31 - suffix.length())) + suffix;
+        }
+        return name;
+    }
+
+    /**
+     * Creates an empty workbook, streaming or in-memory depending on the mode.
+     */
+
+    protected Workbook createWorkbook(){
+        if(streaming){
+            SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+            workbook.setCompressTempFiles(true);
+            return workbook;
+        }
+        return new XSSFWorkbook();
+    }
+
+    /**
+     * Writes a grid into a new sheet of the workbook.
+     *
+     * @param workbook  Workbook to add the sheet to
+     * @param styles    Styles created for the workbook
+     * @param name      Name of the new sheet
+     * @param grid      Grid of the slots to write
+     * @return the created sheet
+     * @throws IOException if a streaming sheet could not spill its rows
+     */
+
+    protected Sheet writeSheet(Workbook workbook, Styles styles, String name, ScheduleGrid grid) throws IOException {
+        Sheet sheet = workbook.createSheet(name);
+        fillSheet(sheet, styles, grid);
+        return sheet;
+    }
+
+    /**
+     * Writes a grid into an empty sheet.
+     */
+
+    private void fillSheet(Sheet sheet, Styles styles, ScheduleGrid grid) throws IOException {
+        String[] days = grid.getDays();
+        String[] timeSlots = grid.getTimeSlots();
+
+        Row header = sheet.createRow(0);
 
         Cell cornerCell = header.createCell(0);
         cornerCell.setCellValue("Hours");
-        cornerCell.setCellStyle(headerStyle);
-        
+        cornerCell.setCellStyle(styles.header());
+
         sheet.setColumnWidth(0, 4000);
         for(int i = 0; i < days.length; i++){
             sheet.setColumnWidth(i + 1, 6000);
             Cell dayCell = header.createCell(i+1);
             dayCell.setCellValue(days[i]);
-            dayCell.setCellStyle(headerStyle);
+            dayCell.setCellStyle(styles.header());
         }
 
         for(int i = 0; i < timeSlots.length; i++){
             Row row = sheet.createRow(i + 1);
-            for(int j = 0; j < days.length + 1; j++){
-                if(j == 0){
-                    Cell timeSlotCell = row.createCell(0);
-                    timeSlotCell.setCellStyle(cellStyle);
-                    timeSlotCell.setCellValue(timeSlots[i]);
+            Cell timeSlotCell = row.createCell(0);
+            timeSlotCell.setCellStyle(styles.cell());
+            timeSlotCell.setCellValue(timeSlots[i]);
+
+            for(int j = 0; j < days.length; j++){
+                Cell cell = row.createCell(j + 1);
+                cell.setCellStyle(styles.cell());
+                StringBuilder courses = new StringBuilder();
+                for(ScheduleGrid.Entry entry : grid.getCell(i, j)){
+                    courses.append(" ").append(entry.slot().getRoom()).append("    ")
+                           .append(entry.course()).append("    ")
+                           .append(entry.instructor()).append(" ")
+                           .append("\n");
                 }
-                else{
-                    String timeSlot = timeSlots[i].split("-")[0];
-                    String day = days[j - 1];
-                    int index = 0;
-                    Cell cell = row.createCell(j);
-                    cell.setCellStyle(cellStyle);
-                    String courses = "";
-                    while(index < slots.size()){
-                        Slot s = slots.get(index);
-                        String course = s.getCourseCode().split("\\(")[0];
-                        String instructor = "";
-                        
-                        
-                        for(char c: s.getInstructor().toCharArray()){
-                            if(Character.isUpperCase(c)){
-                                instructor += c;
-                            }
-                        }
-                        if (s.getDay().equalsIgnoreCase(day) && s.getTime().equals(timeSlot)) {
-                            courses += " " + s.getRoom() + "    "
-                                    +  course + "    "
-                                    +  instructor + " "
-                                       + "\n";
-                            slots.remove(index);
-                        }
-                        else{
-                            index++;
-                        }
-                    }
-                    if(courses.length() > 0){
-                        cell.setCellValue(courses);
-                    }
+                if(courses.length() > 0){
+                    cell.setCellValue(courses.toString());
                 }
-
-
             }
         }
-        try (FileOutputStream outputStream = new FileOutputStream( "resources\\output\\schedule.xlsx")) {
+
+        // A finished sheet is never revisited, so streaming mode can spill all of its rows
+        if(sheet instanceof SXSSFSheet streamingSheet){
+            streamingSheet.flushRows();
+        }
+    }
+
+    /**
+     * Writes the workbook to the given path and announces the file. The caller
+     * releases the workbook, whether writing succeeded or not.
+     */
+
+    protected void save(Workbook workbook, Path path, String fileName) throws IOException {
+        try (FileOutputStream outputStream = new FileOutputStream(path.toFile())) {
             workbook.write(outputStream);
+        }
+        System.out.println("Excel file "+ fileName + " created successfully.");
+    }
+
+    /**
+     * Closes the workbook and deletes the temporary files of a streaming workbook.
+     */
+
+    private void release(Workbook workbook){
+        if(workbook instanceof SXSSFWorkbook streamingWorkbook){
+            streamingWorkbook.dispose();
+        }
+        try {
             workbook.close();
-            System.out.println("Excel file "+ sheet.getSheetName() + ".xlsx created successfully.");
         } catch (IOException e) {
             e.printStackTrace();
         }
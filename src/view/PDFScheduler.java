@@ -1,32 +1,73 @@
 package view;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
-import com.itextpdf.kernel.colors.DeviceRgb;
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.kernel.geom.PageSize;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import com.itextpdf.commons.exceptions.ITextException;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
 import com.itextpdf.layout.Document;
-import com.itextpdf.layout.borders.SolidBorder;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.element.Text;
-import com.itextpdf.layout.properties.HorizontalAlignment;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.VerticalAlignment;
+import com.itextpdf.layout.element.AreaBreak;
+import model.ScheduleGrid;
+import model.ScheduleViews;
 import model.Slot;
+import util.Metrics;
 
 /**
  * Concrete Strategy that generates a weekly course schedule in PDF format.
  * 
  * Uses iText PDF library to construct a readable table representation of the schedule.
+ * iText reports most write errors as unchecked exceptions; they are rethrown
+ * as IOException, so callers see a failed export the same way for both formats.
  */
 
 public class PDFScheduler implements BasicScheduler{
- 
+
+    private final Path outputDir;
+    private final int threads;
+
+    /**
+     * Creates a PDF scheduler that writes to the default output directory.
+     */
+
+    public PDFScheduler(){
+        this(OUTPUT_DIR);
+    }
+
+    /**
+     * Creates a PDF scheduler that renders on the calling thread.
+     *
+     * @param outputDir directory the .pdf files are written to
+     */
+
+    public PDFScheduler(Path outputDir){
+        this(outputDir, 1);
+    }
+
+    /**
+     * Creates a PDF scheduler.
+     *
+     * @param outputDir directory the .pdf files are written to
+     * @param threads   number of threads generateBatch renders the timetables on
+     */
+
+    public PDFScheduler(Path outputDir, int threads){
+        this.outputDir = outputDir;
+        this.threads = Math.max(1, threads);
+    }
+
     /**
      * Generates a PDF file named "schedule.pdf" with the weekly schedule table.
      *
@@ -36,117 +77,136 @@ public class PDFScheduler implements BasicScheduler{
      */
 
     @Override
-    public void generateSchedule(String[] days, String[] timeSlots, List<Slot> slots) {
-                       
+    public void generateSchedule(String[] days, String[] timeSlots, List<Slot> slots) throws IOException {
+        long start = System.nanoTime();
         try {
-            PdfWriter writer = new PdfWriter(new FileOutputStream( "resources\\output\\schedule.pdf"));
+            PdfWriter writer = new PdfWriter(new FileOutputStream(outputDir.resolve("schedule.pdf").toFile()));
             PdfDocument pdf = new PdfDocument(writer);
             pdf.getDocumentInfo().setTitle("Schedule");
-            Document document = new Document(pdf, PageSize.A4.rotate());
-
-            Table table = new Table(days.length + 1);
-            table.setHorizontalAlignment(HorizontalAlignment.CENTER);
-
-            PdfFont helveticaBold = PdfFontFactory.createFont("Helvetica-Bold");
-            PdfFont helvetica = PdfFontFactory.createFont("Helvetica");
-
-            DeviceRgb coral = new DeviceRgb(255, 128, 128);
-            DeviceRgb gray = new DeviceRgb(217, 217, 217);
-
-            Cell cornerCell = new Cell();
-            cornerCell.setFont(helveticaBold);
-            cornerCell.setFontSize(12);
-            cornerCell.setBackgroundColor(gray);
-            cornerCell.setBorder(new SolidBorder(1));
-            cornerCell.setPaddingLeft(10);
-            cornerCell.setPaddingRight(10);
-            cornerCell.add(new Paragraph("Hours"));
-            table.addHeaderCell(cornerCell);
-
-            for(int i = 0; i < days.length; i++){
-                Cell dayCell = new Cell();
-                dayCell.setFont(helveticaBold);
-                dayCell.setFontSize(12);
-                dayCell.setBackgroundColor(coral);
-                dayCell.setBorder(new SolidBorder(1));
-                dayCell.setPaddingLeft(30);
-                dayCell.setPaddingRight(30);
-                dayCell.add(new Paragraph(days[i]));
-                table.addHeaderCell(dayCell);
+            Document document = PdfRenderContext.open(pdf);
+            PdfRenderContext context = new PdfRenderContext(document);
+
+            document.add(context.table(new ScheduleGrid(days, timeSlots, slots)));
+            document.close();
+        } 
+        catch (ITextException e) {
+            throw new IOException("Could not write schedule.pdf", e);
+        }
+        System.out.println("PDF file Schedule.pdf created successfully.");
+        Metrics.histogram("export_seconds", "format", "pdf", "kind", "schedule").recordSince(start);
+    }
+
+    /**
+     * Generates a PDF file named "timetables.pdf" with one page per instructor,
+     * room and course, in that order. Each page starts with the timetable's title.
+     *
+     * With more than one thread, the timetables are split into one contiguous
+     * part per thread. Each part is rendered into its own PdfDocument in memory,
+     * and the parts are merged in order, so the pages come out the same as on
+     * a single thread.
+     *
+     * @param views      Per-entity timetables of the schedule
+     */
+
+    @Override
+    public void generateBatch(ScheduleViews views) throws IOException {
+        long start = System.nanoTime();
+        List<Map.Entry<String, ScheduleGrid>> timetables = new ArrayList<>();
+        for(ScheduleViews.Kind kind : ScheduleViews.Kind.values()){
+            for(Map.Entry<String, ScheduleGrid> view : views.get(kind).entrySet()){
+                timetables.add(Map.entry(kind.getLabel() + ": " + view.getKey(), view.getValue()));
             }
-            
-            
-            for(int i = 0; i < timeSlots.length; i++){
-       
-                for(int j = 0; j < days.length + 1; j++){
-                    if(j == 0){
-                        Cell timeCell = new Cell();
-                        timeCell.setFont(helveticaBold);
-                        timeCell.setFontSize(12);
-                        timeCell.setBackgroundColor(gray);
-                        timeCell.setBorder(new SolidBorder(1));
-                        timeCell.setTextAlignment(TextAlignment.CENTER);
-                        timeCell.setVerticalAlignment(VerticalAlignment.MIDDLE);
-                        timeCell.add(new Paragraph(timeSlots[i]));
-                        table.addCell(timeCell);
-
-                    }
-                    else{
-                        int index = 0;
-                        String day = days[j - 1];
-                        String timeSlot = timeSlots[i].split("-")[0];
-                        Paragraph paragraph = new Paragraph();
-                        while(index < slots.size()){
-                            Slot s = slots.get(index);
-                            String course = s.getCourseCode().split("\\(")[0];
-                            String instructor = "";
-                            
-                            
-                            for(char c: s.getInstructor().toCharArray()){
-                                if(Character.isUpperCase(c)){
-                                    instructor += c;
-                                }
-                            }
-                            
-                            if (s.getDay().equalsIgnoreCase(day) && s.getTime().equals(timeSlot)) {
-                                paragraph.add(new Text(s.getRoom() + "     ").setFont(helvetica));
-                                paragraph.add(new Text(course + "     ").setFont(helveticaBold));
-                                paragraph.add(new Text(instructor + "\n").setFont(helvetica));
-                                slots.remove(index);
-                            }
-                            else{
-                                index++;
-                            }
-                            
-                        }
-                        if(!paragraph.isEmpty()){
-                            Cell slotCell = new Cell();
-                            slotCell.setBorder(new SolidBorder(1));
-                            slotCell.setFontSize(12);
-                            slotCell.setVerticalAlignment(VerticalAlignment.MIDDLE);
-                            slotCell.setTextAlignment(TextAlignment.CENTER);
-                            slotCell.setPaddingTop(10);
-                            slotCell.setPaddingBottom(10);
-                            slotCell.add(paragraph);
-                            table.addCell(slotCell);
-                        }
-                        else{
-                            Cell emptyCell = new Cell();
-                            emptyCell.setBorder(new SolidBorder(1));
-                            table.addCell(emptyCell);
-                            
-                        }
-                    }
-                }
+        }
+        try {
+            PdfWriter writer = new PdfWriter(new FileOutputStream(outputDir.resolve("timetables.pdf").toFile()));
+            PdfDocument pdf = new PdfDocument(writer);
+            pdf.getDocumentInfo().setTitle("Timetables");
+            Document document = PdfRenderContext.open(pdf);
+            if(threads > 1 && timetables.size() > 1){
+                mergeParts(pdf, timetables);
+            }
+            else{
+                addTimetables(document, timetables);
+            }
+            document.close();
+        }
+        catch (ITextException e) {
+            throw new IOException("Could not write timetables.pdf", e);
+        }
+        System.out.println("PDF file Timetables.pdf created successfully.");
+        Metrics.histogram("export_seconds", "format", "pdf", "kind", "batch").recordSince(start);
+    }
 
+    /**
+     * Adds one page per timetable. All pages share the document's fonts and header template.
+     */
+
+    private static void addTimetables(Document document, List<Map.Entry<String, ScheduleGrid>> timetables) throws IOException {
+        PdfRenderContext context = new PdfRenderContext(document);
+        boolean firstPage = true;
+        for(Map.Entry<String, ScheduleGrid> timetable : timetables){
+            if(!firstPage){
+                document.add(new AreaBreak());
             }
+            firstPage = false;
+            context.addTimetable(timetable.getKey(), timetable.getValue());
+        }
+    }
 
-            document.add(table);
-            System.out.println("PDF file "+ pdf.getDocumentInfo().getTitle() + ".pdf created successfully.");
-            document.close();
-        } 
-        catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * Renders the parts of the timetables on the worker threads and merges
+     * them into the document in part order, each as soon as it is ready.
+     */
+
+    private void mergeParts(PdfDocument pdf, List<Map.Entry<String, ScheduleGrid>> timetables) throws IOException {
+        int parts = Math.min(threads, timetables.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(parts)) {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for(int i = 0; i < parts; i++){
+                List<Map.Entry<String, ScheduleGrid>> part =
+                    timetables.subList(i * timetables.size() / parts, (i + 1) * timetables.size() / parts);
+                results.add(executor.submit(() -> renderPart(part)));
+            }
+
+            PdfMerger merger = new PdfMerger(pdf);
+            for(Future<byte[]> result : results){
+                try (PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(result.get())))) {
+                    merger.merge(source, 1, source.getNumberOfPages());
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Rendering the timetables was interrupted", e);
         }
+        catch (ExecutionException e) {
+            throw new IOException("Could not render the timetables", e.getCause());
+        }
+    }
+
+    private static byte[] renderPart(List<Map.Entry<String, ScheduleGrid>> timetables) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document document = PdfRenderContext.open(new PdfDocument(new PdfWriter(out)));
+        addTimetables(document, timetables);
+        document.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes one timetable as a single-page PDF to the stream.
+     */
+
+    @Override
+    public void writeTimetable(String title, ScheduleGrid grid, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        pdf.getDocumentInfo().setTitle(title);
+        Document document = PdfRenderContext.open(pdf);
+
+        new PdfRenderContext(document).addTimetable(title, grid);
+        document.close();
+        Metrics.histogram("export_seconds", "format", "pdf", "kind", "timetable").recordSince(start);
     }
-}
\ No newline at end of file
+}
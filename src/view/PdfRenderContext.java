@@ -0,0 +1,256 @@
+package view;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Text;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.layout.properties.VerticalAlignment;
+import model.ScheduleGrid;
+
+/**
+ * Fonts, styles and table templates for writing timetables into one PdfDocument.
+ *
+ * Borders, colors and cell styles don't depend on the document, so they are
+ * built once and shared by every context. Fonts belong to a document, so each
+ * context creates its two fonts once instead of once per timetable.
+ *
+ * For timetables (one per page), the header row of the table is drawn once
+ * per document into a form XObject and every page only references it, so a
+ * batch of hundreds of timetables writes the header a single time. Those
+ * tables have fixed column widths, so the header and the body line up. Only
+ * a timetable that runs over onto another page draws the header row again
+ * there.
+ */
+
+final class PdfRenderContext {
+
+    static final PageSize PAGE_SIZE = PageSize.A4.rotate();
+
+    private static final float MARGIN = 36;
+    private static final float TIME_WIDTH = 80;
+
+    private static final DeviceRgb CORAL = new DeviceRgb(255, 128, 128);
+    private static final DeviceRgb GRAY = new DeviceRgb(217, 217, 217);
+    private static final Border BORDER = new SolidBorder(1);
+
+    private static final Style CORNER = new Style()
+        .setBackgroundColor(GRAY).setBorder(BORDER).setPaddingLeft(10).setPaddingRight(10);
+    private static final Style DAY = new Style()
+        .setBackgroundColor(CORAL).setBorder(BORDER).setPaddingLeft(30).setPaddingRight(30)
+        .setTextAlignment(TextAlignment.CENTER);
+    private static final Style TIME = new Style()
+        .setBackgroundColor(GRAY).setBorder(BORDER)
+        .setTextAlignment(TextAlignment.CENTER).setVerticalAlignment(VerticalAlignment.MIDDLE);
+    private static final Style SLOT = new Style()
+        .setBorder(BORDER).setTextAlignment(TextAlignment.CENTER).setVerticalAlignment(VerticalAlignment.MIDDLE)
+        .setPaddingTop(10).setPaddingBottom(10);
+    private static final Style EMPTY = new Style().setBorder(BORDER);
+
+    private final Document document;
+    private final PdfFont bold;
+    private final PdfFont regular;
+    // Header templates of this document, by the days they show
+    private final Map<List<String>, PdfFormXObject> headers = new HashMap<>();
+
+    /**
+     * Creates the fonts of a document.
+     */
+
+    PdfRenderContext(Document document) throws IOException {
+        this.document = document;
+        this.bold = PdfFontFactory.createFont("Helvetica-Bold");
+        this.regular = PdfFontFactory.createFont("Helvetica");
+    }
+
+    /**
+     * Returns a document on an A4 landscape page, as every timetable is written.
+     */
+
+    static Document open(PdfDocument pdf) {
+        return new Document(pdf, PAGE_SIZE);
+    }
+
+    /**
+     * Returns the centered heading of a timetable page.
+     */
+
+    Paragraph title(String text) {
+        Paragraph title = new Paragraph(text);
+        title.setFont(bold);
+        title.setFontSize(16);
+        title.setTextAlignment(TextAlignment.CENTER);
+        return title;
+    }
+
+    /**
+     * Adds a timetable with its title to the current page. The header row is
+     * the document's template for these days. A timetable too tall for one
+     * page repeats the header row as ordinary cells on the following pages;
+     * the first page skips them, so a timetable that fits draws only the template.
+     */
+
+    void addTimetable(String title, ScheduleGrid grid) {
+        float[] widths = columnWidths(grid.getDays().length);
+        document.add(title(title));
+        document.add(new Image(header(grid.getDays(), widths)).setHorizontalAlignment(HorizontalAlignment.CENTER));
+        Table table = newTable(widths);
+        addHeader(table, grid.getDays(), true);
+        table.setSkipFirstHeader(true);
+        addBody(table, grid, true);
+        document.add(table);
+    }
+
+    /**
+     * Builds the weekly table of a grid, with days as columns and time slots
+     * as rows. Unlike addTimetable, the columns fit their content and the
+     * header row is repeated when the table runs over several pages, which is
+     * what the whole schedule needs.
+     */
+
+    Table table(ScheduleGrid grid) {
+        Table table = new Table(grid.getDays().length + 1);
+        table.setHorizontalAlignment(HorizontalAlignment.CENTER);
+        table.setFont(bold);
+        table.setFontSize(12);
+        addHeader(table, grid.getDays(), true);
+        addBody(table, grid, false);
+        return table;
+    }
+
+    private PdfFormXObject header(String[] days, float[] widths) {
+        return headers.computeIfAbsent(List.of(days), key -> {
+            float width = sum(widths);
+            // Lay a copy of the row out first to know how tall the template must be;
+            // a table that was laid out once can't be added again
+            float height = headerRow(days, widths).createRendererSubTree().setParent(document.getRenderer())
+                .layout(new LayoutContext(new LayoutArea(1, new Rectangle(width, PAGE_SIZE.getHeight()))))
+                .getOccupiedArea().getBBox().getHeight();
+
+            // The outer borders stick out of the table by half their width
+            float border = BORDER.getWidth();
+            PdfFormXObject template = new PdfFormXObject(new Rectangle(-border, -border, width + 2 * border, height + 2 * border));
+            PdfCanvas pdfCanvas = new PdfCanvas(template, document.getPdfDocument());
+            try (Canvas canvas = new Canvas(pdfCanvas, new Rectangle(width, height))) {
+                canvas.add(headerRow(days, widths));
+            }
+            return template;
+        });
+    }
+
+    private Table headerRow(String[] days, float[] widths) {
+        Table header = newTable(widths);
+        addHeader(header, days, false);
+        return header;
+    }
+
+    private Table newTable(float[] widths) {
+        Table table = new Table(UnitValue.createPointArray(widths));
+        table.setWidth(sum(widths));
+        table.setFixedLayout();
+        table.setHorizontalAlignment(HorizontalAlignment.CENTER);
+        table.setFont(bold);
+        table.setFontSize(12);
+        return table;
+    }
+
+    private static void addHeader(Table table, String[] days, boolean repeat) {
+        Cell cornerCell = new Cell().addStyle(CORNER).add(new Paragraph("Hours"));
+        if (repeat) {
+            table.addHeaderCell(cornerCell);
+        } else {
+            table.addCell(cornerCell);
+        }
+        for (String day : days) {
+            Cell dayCell = new Cell().addStyle(DAY).add(new Paragraph(day));
+            if (repeat) {
+                table.addHeaderCell(dayCell);
+            } else {
+                table.addCell(dayCell);
+            }
+        }
+    }
+
+    /**
+     * Adds a row per time slot. Below a header template, the first row has no
+     * top border, since the template already draws that line.
+     */
+
+    private void addBody(Table table, ScheduleGrid grid, boolean belowTemplate) {
+        String[] days = grid.getDays();
+        String[] timeSlots = grid.getTimeSlots();
+        for (int i = 0; i < timeSlots.length; i++) {
+            table.addCell(topRow(new Cell().addStyle(TIME).add(new Paragraph(timeSlots[i])), belowTemplate && i == 0));
+
+            for (int j = 0; j < days.length; j++) {
+                List<ScheduleGrid.Entry> entries = grid.getCell(i, j);
+                Cell cell;
+                if (entries.isEmpty()) {
+                    cell = new Cell().addStyle(EMPTY);
+                } else {
+                    Paragraph paragraph = new Paragraph();
+                    for (ScheduleGrid.Entry entry : entries) {
+                        paragraph.add(new Text(entry.slot().getRoom() + "     ").setFont(regular));
+                        paragraph.add(new Text(entry.course() + "     "));
+                        paragraph.add(new Text(entry.instructor() + "\n").setFont(regular));
+                    }
+                    cell = new Cell().addStyle(SLOT).add(paragraph);
+                }
+                table.addCell(topRow(cell, belowTemplate && i == 0));
+            }
+        }
+    }
+
+    private static Cell topRow(Cell cell, boolean noTopBorder) {
+        if (noTopBorder) {
+            cell.setBorderTop(Border.NO_BORDER);
+        }
+        return cell;
+    }
+
+    /**
+     * The time column has a fixed width and the days share the rest of the page.
+     */
+
+    private static float[] columnWidths(int days) {
+        float[] widths = new float[days + 1];
+        widths[0] = TIME_WIDTH;
+        // Leave room for the outer borders, or the header template would be scaled down to fit
+        float dayWidth = (PAGE_SIZE.getWidth() - 2 * MARGIN - 2 * BORDER.getWidth() - TIME_WIDTH) / days;
+        for (int i = 1; i < widths.length; i++) {
+            widths[i] = dayWidth;
+        }
+        return widths;
+    }
+
+    private static float sum(float[] widths) {
+        float sum = 0;
+        for (float width : widths) {
+            sum += width;
+        }
+        return sum;
+    }
+}